@@ -0,0 +1,95 @@
+package frc.robot.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH result to the checked in baseline, and fails if a benchmark got slower or started
+ * allocating more.
+ *
+ * <p>Run with {@code ./gradlew jmhCompare}, after {@code ./gradlew jmh}. After an intentional
+ * change, accept the new numbers with {@code ./gradlew jmhBaseline}.
+ */
+public final class BenchmarkCompare {
+  /** Allowed slowdown, as a fraction of the baseline time */
+  private static final double timeTolerance = 0.15;
+  /** Allowed growth in allocation, in bytes per operation, to absorb JIT noise */
+  private static final double allocationToleranceBytes = 16;
+
+  private record Result(double nanosPerOp, double bytesPerOp) {}
+
+  private BenchmarkCompare() {}
+
+  public static void main(String... args) throws Exception {
+    if (args.length < 2) {
+      System.err.println("Usage: BenchmarkCompare <baseline> <result>");
+      System.exit(2);
+    }
+    Map<String, Result> baseline = read(new File(args[0]));
+    Map<String, Result> result = read(new File(args[1]));
+
+    int regressions = 0;
+    for (Map.Entry<String, Result> entry : result.entrySet()) {
+      Result before = baseline.get(entry.getKey());
+      Result after = entry.getValue();
+      if (before == null) {
+        System.out.println(
+            String.format(
+                Locale.ROOT,
+                "NEW   %s  %.1f ns/op  %.1f B/op",
+                entry.getKey(),
+                after.nanosPerOp(),
+                after.bytesPerOp()));
+        continue;
+      }
+      boolean slower = after.nanosPerOp() > before.nanosPerOp() * (1 + timeTolerance);
+      boolean allocating = after.bytesPerOp() > before.bytesPerOp() + allocationToleranceBytes;
+      if (slower || allocating) {
+        regressions++;
+      }
+      System.out.println(
+          String.format(
+              Locale.ROOT,
+              "%s  %s  %.1f -> %.1f ns/op  %.1f -> %.1f B/op",
+              slower || allocating ? "FAIL" : "ok  ",
+              entry.getKey(),
+              before.nanosPerOp(),
+              after.nanosPerOp(),
+              before.bytesPerOp(),
+              after.bytesPerOp()));
+    }
+    System.out.println(regressions + " regressions");
+    System.exit(regressions == 0 ? 0 : 1);
+  }
+
+  private static Map<String, Result> read(File file) throws Exception {
+    Map<String, Result> results = new TreeMap<>();
+    for (JsonNode benchmark : new ObjectMapper().readTree(file)) {
+      String name = benchmark.get("benchmark").asText();
+      JsonNode params = benchmark.get("params");
+      if (params != null) {
+        name += params.toString();
+      }
+      double bytesPerOp = 0;
+      JsonNode secondary = benchmark.get("secondaryMetrics");
+      if (secondary != null) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondary.fields();
+        while (metrics.hasNext()) {
+          Map.Entry<String, JsonNode> metric = metrics.next();
+          // Named "·gc.alloc.rate.norm" before JMH 1.35
+          if (metric.getKey().endsWith("gc.alloc.rate.norm")) {
+            bytesPerOp = metric.getValue().get("score").asDouble();
+          }
+        }
+      }
+      results.put(
+          name, new Result(benchmark.get("primaryMetric").get("score").asDouble(), bytesPerOp));
+    }
+    return results;
+  }
+}
@@ -0,0 +1,39 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+
+/**
+ * Shared setup for the benchmarks.
+ *
+ * <p>The benchmarks run against the desktop simulation HAL, so they need no hardware. Timing is
+ * paused, and each benchmark steps it by one loop per operation, so timestamps advance the same
+ * way on every run no matter how fast the operation is.
+ *
+ * <p>The logger isn't started. Benchmarks measure the robot code, not AdvantageKit, and {@code
+ * Logger.recordOutput} is a no-op while the logger is stopped.
+ */
+final class BenchmarkSupport {
+  static final double loopPeriodSecs = 0.02;
+
+  private static boolean initialized = false;
+
+  private BenchmarkSupport() {}
+
+  /** Start the simulation HAL, once per JVM. */
+  static synchronized void initialize() {
+    if (initialized) {
+      return;
+    }
+    if (!HAL.initialize(500, 0)) {
+      throw new IllegalStateException("Failed to initialize the simulation HAL");
+    }
+    SimHooks.pauseTiming();
+    initialized = true;
+  }
+
+  /** Advance the simulation clock by one loop. */
+  static void step() {
+    SimHooks.stepTiming(loopPeriodSecs);
+  }
+}
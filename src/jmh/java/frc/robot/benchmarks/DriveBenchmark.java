@@ -0,0 +1,38 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.robot.generic.subsystems.drive.Drive;
+import frc.robot.generic.subsystems.drive.GyroIO;
+import frc.robot.generic.subsystems.drive.ModuleIOSim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One drive periodic with simulated modules, driving and turning. Without a gyro, odometry
+ * integrates the module deltas through the kinematics.
+ */
+@State(Scope.Thread)
+public class DriveBenchmark {
+  private Drive drive;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    drive =
+        new Drive(
+            new GyroIO() {},
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim());
+    drive.runVelocity(new ChassisSpeeds(2.0, 1.0, 1.5));
+  }
+
+  @Benchmark
+  public void periodic() {
+    BenchmarkSupport.step();
+    drive.periodic();
+  }
+}
@@ -0,0 +1,38 @@
+package frc.robot.benchmarks;
+
+import com.ctre.phoenix6.CANBus;
+import frc.robot.generic.util.LoggedTalon.TalonFX.LoggedTalonFX;
+import frc.robot.generic.util.LoggedTalon.TalonFX.TalonFXSimpleMotorSim;
+import frc.robot.generic.util.PhoenixUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A simulated Talon, through the same code paths as a real one. The sim registers its signals with
+ * {@link PhoenixUtil}, so the synchronized refresh is measured with it.
+ */
+@State(Scope.Thread)
+public class LoggedTalonBenchmark {
+  private LoggedTalonFX talon;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    talon =
+        new TalonFXSimpleMotorSim(1, new CANBus("rio"), "Benchmark", 0.01, 1)
+            .withConfig(LoggedTalonFX.buildStandardConfig(40, 40));
+  }
+
+  @Benchmark
+  public void periodic() {
+    BenchmarkSupport.step();
+    talon.periodic();
+  }
+
+  @Benchmark
+  public void refreshAll() {
+    PhoenixUtil.refreshAll();
+  }
+}
@@ -0,0 +1,33 @@
+package frc.robot.benchmarks;
+
+import frc.robot.generic.util.LoggedTunableNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The change check a subsystem runs every loop for its gains. Nothing changes between operations,
+ * so this is the cost of finding out that nothing changed.
+ */
+@State(Scope.Thread)
+public class LoggedTunableNumberBenchmark {
+  private LoggedTunableNumber kP;
+  private LoggedTunableNumber kI;
+  private LoggedTunableNumber kD;
+  private int changes = 0;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    kP = new LoggedTunableNumber("Benchmark/kP", 1.0);
+    kI = new LoggedTunableNumber("Benchmark/kI", 0.0);
+    kD = new LoggedTunableNumber("Benchmark/kD", 0.1);
+  }
+
+  @Benchmark
+  public int ifChanged() {
+    LoggedTunableNumber.ifChanged(this, values -> changes++, kP, kI, kD);
+    return changes;
+  }
+}
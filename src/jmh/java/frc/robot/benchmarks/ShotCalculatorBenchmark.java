@@ -0,0 +1,32 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.generic.RobotState;
+import frc.robot.testing2026.subsystems.shooter.ShotCalculator;
+import frc.robot.testing2026.subsystems.shooter.ShotCalculator.ShotParameters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** A moving shot, computed from scratch every operation like it is once per loop. */
+@State(Scope.Thread)
+public class ShotCalculatorBenchmark {
+  private final Pose2d pose = new Pose2d(3.0, 2.0, Rotation2d.fromDegrees(30));
+  private final ChassisSpeeds speeds = new ChassisSpeeds(1.5, -0.5, 0.8);
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    RobotState.getInstance().update(Timer.getTimestamp(), pose, speeds);
+  }
+
+  @Benchmark
+  public ShotParameters calculateShot() {
+    ShotCalculator.getInstance().clearCache();
+    return ShotCalculator.getInstance().calculateShot();
+  }
+}
@@ -0,0 +1,56 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.robot.generic.util.SubsteppedMotorSim;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The cost of one physics substep, for choosing {@code SIM_SUBSTEPS}. A swerve module steps two
+ * motors per substep, and each Talon sim one.
+ */
+@State(Scope.Thread)
+public class SimSubstepBenchmark {
+  private static final int substeps = 20;
+  private static final double substepSeconds = 0.02 / substeps;
+
+  private final DCMotor gearbox = DCMotor.getKrakenX60Foc(1);
+  private SubsteppedMotorSim substepped;
+  private DCMotorSim dcMotorSim;
+  private double voltage = 6;
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    substepped = new SubsteppedMotorSim(gearbox, 0.025, 5.14, substepSeconds);
+    dcMotorSim = new DCMotorSim(LinearSystemId.createDCMotorSystem(gearbox, 0.025, 5.14), gearbox);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(substeps)
+  public double substeppedMotorSim() {
+    voltage = -voltage;
+    for (int i = 0; i < substeps; i++) {
+      substepped.setInputVoltage(voltage);
+      substepped.step();
+    }
+    return substepped.getAngularVelocityRadPerSec();
+  }
+
+  /** The WPILib sim it replaced, for comparison */
+  @Benchmark
+  @OperationsPerInvocation(substeps)
+  public double dcMotorSim() {
+    voltage = -voltage;
+    for (int i = 0; i < substeps; i++) {
+      dcMotorSim.setInputVoltage(voltage);
+      dcMotorSim.update(substepSeconds);
+    }
+    return dcMotorSim.getAngularVelocityRadPerSec();
+  }
+}
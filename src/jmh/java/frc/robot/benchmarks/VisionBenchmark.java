@@ -0,0 +1,71 @@
+package frc.robot.benchmarks;
+
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.wpilibj.Timer;
+import frc.robot.generic.subsystems.vision.Vision;
+import frc.robot.generic.subsystems.vision.VisionIO;
+import frc.robot.generic.subsystems.vision.VisionIO.PoseObservation;
+import frc.robot.generic.subsystems.vision.VisionIO.PoseObservationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * One vision periodic with synthetic cameras. Each camera sees a few tags and reports a mix of
+ * accepted and rejected poses every loop.
+ */
+@State(Scope.Thread)
+public class VisionBenchmark {
+  @Param({"2"})
+  public int cameras;
+
+  @Param({"4"})
+  public int observationsPerCamera;
+
+  private Vision vision;
+  private int accepted = 0;
+
+  private class SyntheticCamera implements VisionIO {
+    private final int[] tagIds = {1, 2, 3, 4};
+
+    @Override
+    public void updateInputs(VisionIOInputs inputs) {
+      double timestamp = Timer.getTimestamp();
+      inputs.connected = true;
+      inputs.tagIds = tagIds;
+      inputs.poseObservations = new PoseObservation[observationsPerCamera];
+      for (int i = 0; i < observationsPerCamera; i++) {
+        // Every fourth observation is off the field, so it is rejected
+        double x = i % 4 == 3 ? -1.0 : 2.0 + 0.1 * i;
+        inputs.poseObservations[i] =
+            new PoseObservation(
+                timestamp - 0.03,
+                new Pose3d(x, 3.0, 0.0, new Rotation3d(0, 0, 0.2 * i)),
+                0.05,
+                1 + i % 3,
+                2.5,
+                PoseObservationType.PHOTONVISION);
+      }
+    }
+  }
+
+  @Setup
+  public void setup() {
+    BenchmarkSupport.initialize();
+    VisionIO[] io = new VisionIO[cameras];
+    for (int i = 0; i < cameras; i++) {
+      io[i] = new SyntheticCamera();
+    }
+    vision = new Vision((pose, timestamp, stdDevs) -> accepted++, io);
+  }
+
+  @Benchmark
+  public int periodic() {
+    BenchmarkSupport.step();
+    vision.periodic();
+    return accepted;
+  }
+}
@@ -14,18 +14,22 @@
 package frc.robot;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.generic.replay.ReplayRunner;
+import frc.robot.generic.replay.ReplaySummary;
 import frc.robot.generic.util.RobotConfig;
+import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 /**
  * This class defines the runtime mode used by AdvantageKit. The mode is always "real" when running
  * on a roboRIO. Change the value of "simMode" to switch between "sim" (physics sim) and "replay"
- * (log replay from a file).
+ * (log replay from a file). Headless replays from {@link ReplayRunner} are always "replay".
  */
 public final class Constants {
   public static final Mode simMode = Mode.SIM;
-  public static final Mode currentMode = RobotBase.isReal() ? Mode.REAL : simMode;
+  public static final Mode currentMode =
+      RobotBase.isReal() ? Mode.REAL : ReplaySummary.isHeadless() ? Mode.REPLAY : simMode;
   public static final boolean tuningMode = true;
   @Getter private static final Robot currentRobot = Robot.TESTING_2026;
 
@@ -40,14 +44,30 @@ public final class Constants {
     REPLAY
   }
 
+  /**
+   * The robots this code can run. A robot's container class, and everything its static
+   * initialization loads, is only loaded when its config is first requested, so the other robots
+   * cost nothing at startup.
+   */
   @RequiredArgsConstructor
   public enum Robot {
-    OUTREACH(frc.robot.outReach.RobotContainer.config),
-    TESTBED(frc.robot.testbed.RobotContainer.config),
-    CUSTOM_IMPL_1(frc.robot.customImplementation1.RobotContainer.config),
-    CUSTOM_IMPL_2(frc.robot.customImplementation2.RobotContainer.config),
-    TESTING_2026(frc.robot.testing2026.RobotContainer.config);
+    OUTREACH(() -> frc.robot.outReach.RobotContainer.config),
+    TESTBED(() -> frc.robot.testbed.RobotContainer.config),
+    CUSTOM_IMPL_1(() -> frc.robot.customImplementation1.RobotContainer.config),
+    CUSTOM_IMPL_2(() -> frc.robot.customImplementation2.RobotContainer.config),
+    TESTING_2026(() -> frc.robot.testing2026.RobotContainer.config);
 
-    public final RobotConfig config;
+    private final Supplier<RobotConfig> configSupplier;
+    private RobotConfig config = null;
+
+    /**
+     * @return the config of this robot, loading its container class on first use
+     */
+    public RobotConfig getConfig() {
+      if (config == null) {
+        config = configSupplier.get();
+      }
+      return config;
+    }
   }
 }
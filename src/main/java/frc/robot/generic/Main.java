@@ -14,6 +14,7 @@
 package frc.robot.generic;
 
 import edu.wpi.first.wpilibj.RobotBase;
+import frc.robot.generic.util.StartupTimer;
 
 /**
  * Do NOT add any static variables to this class, or any initialization at all. Unless you know what
@@ -24,11 +25,13 @@ public final class Main {
   private Main() {}
 
   /**
-   * Main initialization function. Do not perform any initialization here.
+   * Main initialization function. Do not perform any initialization here. The {@link
+   * StartupTimer} is the only exception, so startup is timed from the very beginning.
    *
    * <p>If you change your main robot class, change the parameter type.
    */
   public static void main(String... args) {
+    StartupTimer.start();
     RobotBase.startRobot(Robot::new);
   }
 }
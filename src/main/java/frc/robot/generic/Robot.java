@@ -17,9 +17,18 @@ import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.Constants;
+import frc.robot.generic.replay.MappedLogReplaySource;
+import frc.robot.generic.replay.ReplaySummary;
+import frc.robot.generic.sim.AutoEvaluation;
 import frc.robot.generic.util.AbstractRobotContainer;
+import frc.robot.generic.util.BufferedLogWriter;
+import frc.robot.generic.util.LogTier;
+import frc.robot.generic.util.LoopProfiler;
+import frc.robot.generic.util.LoopWatchdog;
 import frc.robot.generic.util.PhoenixUtil;
 import frc.robot.generic.util.RobotConfig;
+import frc.robot.generic.util.SimTiming;
+import frc.robot.generic.util.StartupTimer;
 import frc.robot.outReach.RobotContainer;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -40,10 +49,18 @@ public class Robot extends LoggedRobot {
   private final AbstractRobotContainer robotContainer;
   private final Constants.Robot currentRobot;
   private final RobotConfig config;
+  private BufferedLogWriter logWriter = null;
+
+  private final int beforeSchedulerSlot = LoopProfiler.register("Robot/BeforeScheduler");
+  private final int phoenixRefreshSlot = LoopProfiler.register("Robot/PhoenixRefresh");
+  private final int schedulerSlot = LoopProfiler.register("Robot/Scheduler");
+  private final int afterSchedulerSlot = LoopProfiler.register("Robot/AfterScheduler");
 
   public Robot() {
+    StartupTimer.mark("RobotBase");
     currentRobot = Constants.getCurrentRobot();
-    config = currentRobot.config;
+    config = currentRobot.getConfig();
+    StartupTimer.mark("Config");
     config.preLoggingInit();
     if (config.useDefaultLogging()) {
 
@@ -70,7 +87,8 @@ public class Robot extends LoggedRobot {
       switch (Constants.currentMode) {
         case REAL:
           // Running on a real robot, log to a USB stick ("/U/logs")
-          Logger.addDataReceiver(new WPILOGWriter());
+          logWriter = new BufferedLogWriter("/U/logs");
+          Logger.addDataReceiver(logWriter);
           Logger.addDataReceiver(new NT4Publisher());
           break;
 
@@ -83,7 +101,10 @@ public class Robot extends LoggedRobot {
           // Replaying a log, set up replay source
           setUseTiming(false); // Run as fast as possible
           String logPath = LogFileUtil.findReplayLog();
-          Logger.setReplaySource(new WPILOGReader(logPath));
+          Logger.setReplaySource(
+              MappedLogReplaySource.isWindowed()
+                  ? new MappedLogReplaySource(logPath)
+                  : new WPILOGReader(logPath));
           Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
           break;
       }
@@ -95,11 +116,21 @@ public class Robot extends LoggedRobot {
       // Start AdvantageKit logger
       Logger.start();
     }
+    StartupTimer.mark("Logger");
+    StartupTimer.flush();
     DriverStation.silenceJoystickConnectionWarning(true);
 
     // Instantiate our RobotContainer. This will perform all our button bindings,
     // and put our autonomous chooser on the dashboard.
     robotContainer = config.getContainer().get();
+    StartupTimer.mark("Container");
+
+    if (Constants.currentMode == Constants.Mode.SIM) {
+      SimTiming.start();
+      if (AutoEvaluation.isEnabled()) {
+        AutoEvaluation.start();
+      }
+    }
   }
 
   /** This function is called periodically during all modes. */
@@ -109,17 +140,37 @@ public class Robot extends LoggedRobot {
     // timing (see the template project documentation for details)
     // Threads.setCurrentThreadPriority(true, 99);
 
+    LoopProfiler.startLoop();
+    LogTier.update();
+    long start = LoopProfiler.start();
     config.robotPeriodicBeforeScheduler();
+    LoopProfiler.stop(beforeSchedulerSlot, start);
 
+    start = LoopProfiler.start();
     PhoenixUtil.refreshAll();
+    LoopProfiler.stop(phoenixRefreshSlot, start);
     // Runs the Scheduler. This is responsible for polling buttons, adding
     // newly-scheduled commands, running already-scheduled commands, removing
     // finished or interrupted commands, and running subsystem periodic() methods.
     // This must be called from the robot's periodic block in order for anything in
     // the Command-based framework to work.
+    start = LoopProfiler.start();
     CommandScheduler.getInstance().run();
+    LoopProfiler.stop(schedulerSlot, start);
 
+    start = LoopProfiler.start();
     config.robotPeriodicAfterScheduler();
+    LoopProfiler.stop(afterSchedulerSlot, start);
+    if (logWriter != null) {
+      logWriter.recordTelemetry();
+    }
+    LoopProfiler.endLoop();
+    ReplaySummary.recordLoop(LoopProfiler.getLastLoopNanos());
+    if (LoopWatchdog.update(LoopProfiler.getLastLoopNanos())) {
+      config.degradedModeChanged(LoopWatchdog.isDegraded());
+    }
+    AutoEvaluation.periodic();
+    StartupTimer.finish();
 
     // Return to non-RT thread priority (do not modify the first argument)
     // Threads.setCurrentThreadPriority(false, 10);
@@ -140,7 +191,10 @@ public class Robot extends LoggedRobot {
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
   @Override
   public void autonomousInit() {
-    autonomousCommand = robotContainer.getAutonomousCommand();
+    autonomousCommand =
+        AutoEvaluation.isEnabled()
+            ? AutoEvaluation.getCommand()
+            : robotContainer.getAutonomousCommand();
 
     // schedule the autonomous command (example)
     if (autonomousCommand != null) {
@@ -5,70 +5,199 @@
 package frc.robot.generic;
 
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rectangle2d;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
-import frc.robot.testing2026.FieldConstants;
-import frc.robot.testing2026.FieldConstants.LinesHorizontal;
-import frc.robot.testing2026.FieldConstants.LinesVertical;
+import frc.robot.generic.util.PoseHistory;
+import frc.robot.testing2026.FieldZones;
+import frc.robot.testing2026.FieldZones.Zone;
 import frc.robot.testing2026.subsystems.shooter.ShotCalculator.Goal;
 import lombok.Getter;
 import lombok.Setter;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.AutoLogOutputManager;
 
-/** Add your docs here. */
+/**
+ * Shared estimate of the robot's state.
+ *
+ * <p>The state is published as an immutable {@link Snapshot} through a single volatile reference,
+ * so a reader on any thread always sees a pose, velocity, timestamp and goal that belong together.
+ * There is a single writer: {@link #update(double, Pose2d, ChassisSpeeds)} and {@link
+ * #setGoal(Goal)} must only be called from the main robot thread.
+ *
+ * <p>The last {@link #historySize} poses and velocities are kept in a primitive {@link
+ * PoseHistory} for allocation free, interpolated latency compensation with {@link
+ * #getPoseAt(double)} and {@link #predictPose(double)}.
+ *
+ * <p>There is one robot per JVM. Besides this class, the HAL sim, the command scheduler, the
+ * AdvantageKit logger and the Phoenix sim devices are all process wide, so scoping this singleton
+ * alone would not let two robots share a JVM. Run several robots as separate processes, like
+ * {@link frc.robot.generic.sim.AutoEvaluationRunner} does.
+ */
 public class RobotState {
-  private static RobotState instance;
+  private static final RobotState instance = new RobotState();
 
   public static RobotState getInstance() {
-    if (instance == null) {
-      instance = new RobotState();
-    }
     return instance;
   }
 
+  /**
+   * An immutable, consistent view of the robot state.
+   *
+   * @param version increments with every publish. Useful for skipping work when nothing changed
+   * @param timestampSeconds the timestamp of the measurement, in the robot timebase
+   * @param pose the estimated field relative pose
+   * @param robotRelativeVelocity the measured robot relative velocity
+   * @param goal the current shooting goal
+   */
+  public record Snapshot(
+      long version,
+      double timestampSeconds,
+      Pose2d pose,
+      ChassisSpeeds robotRelativeVelocity,
+      Goal goal) {}
+
+  public static final int historySize = 50;
+
+  private volatile Snapshot snapshot = new Snapshot(0, 0, new Pose2d(), new ChassisSpeeds(), null);
+
+  private final PoseHistory poseHistory = new PoseHistory(historySize);
+  /* Scratch output for the Pose2d convenience lookups. Only used from the main thread */
+  private final double[] poseScratch = new double[3];
+
   private RobotState() {
     AutoLogOutputManager.addObject(this);
   }
 
-  @Getter @Setter private boolean autoGoal = true;
+  @Getter @Setter private volatile boolean autoGoal = true;
 
-  public Goal updateGoal() {
-    if (!autoGoal) {
-      return goal;
-    }
-    if (topTarget.contains(robotPosition.getTranslation())) {
-      goal = Goal.RIGHT;
-    } else if (bottomTarget.contains(robotPosition.getTranslation())) {
-      goal = Goal.LEFT;
-    } else {
-      goal = Goal.HUB;
-    }
-    return goal;
+  /**
+   * Publish a new measurement. This also updates the {@link FieldZones} the robot is in and the
+   * automatic goal.
+   *
+   * @param timestampSeconds the timestamp of the measurement
+   * @param pose the latest estimated pose
+   * @param robotRelativeVelocity the latest measured robot relative velocity
+   */
+  public void update(double timestampSeconds, Pose2d pose, ChassisSpeeds robotRelativeVelocity) {
+    FieldZones.getInstance().update(pose.getTranslation());
+    poseHistory.add(
+        timestampSeconds,
+        pose,
+        robotRelativeVelocity.vxMetersPerSecond,
+        robotRelativeVelocity.vyMetersPerSecond,
+        robotRelativeVelocity.omegaRadiansPerSecond);
+    Snapshot last = snapshot;
+    snapshot =
+        new Snapshot(
+            last.version() + 1,
+            timestampSeconds,
+            pose,
+            robotRelativeVelocity,
+            autoGoal ? computeGoal() : last.goal());
+  }
+
+  /**
+   * Manually set the goal. This is overwritten on the next update if {@link #autoGoal} is enabled.
+   *
+   * @param goal the new goal
+   */
+  public void setGoal(Goal goal) {
+    Snapshot last = snapshot;
+    snapshot =
+        new Snapshot(
+            last.version() + 1,
+            last.timestampSeconds(),
+            last.pose(),
+            last.robotRelativeVelocity(),
+            goal);
   }
 
   public Command setGoalCommand(Goal goal) {
     return Commands.runOnce(() -> setGoal(goal));
   }
 
-  @AutoLogOutput @Getter @Setter private Goal goal;
-  @Getter @Setter private ChassisSpeeds robotRelativeVelocity = new ChassisSpeeds();
-  @Getter @Setter private Pose2d robotPosition = new Pose2d();
-
-  @AutoLogOutput
-  private static final Rectangle2d topTarget =
-      new Rectangle2d(
-          new Translation2d(LinesVertical.starting, LinesHorizontal.leftTrenchOpenStart),
-          new Translation2d(FieldConstants.fieldWidth * 2, LinesHorizontal.center));
-
-  @AutoLogOutput
-  private static Rectangle2d bottomTarget =
-      new Rectangle2d(
-          new Translation2d(LinesVertical.starting, LinesHorizontal.rightTrenchOpenEnd),
-          new Translation2d(
-              FieldConstants.fieldWidth * 2,
-              (2 * LinesHorizontal.center) - LinesHorizontal.center));
+  private Goal computeGoal() {
+    FieldZones zones = FieldZones.getInstance();
+    if (zones.isIn(Zone.TOP_TARGET)) {
+      return Goal.RIGHT;
+    } else if (zones.isIn(Zone.BOTTOM_TARGET)) {
+      return Goal.LEFT;
+    } else {
+      return Goal.HUB;
+    }
+  }
+
+  /**
+   * @return the latest published snapshot. Read this once and use its fields, rather than calling
+   *     the individual getters, when values must be consistent with each other.
+   */
+  public Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Get the interpolated pose at a timestamp. This does not allocate and is safe from any thread.
+   *
+   * @param timestampSeconds the time to sample at. Clamped to the kept history
+   * @param out array of length 3 to write {@code {x, y, theta}} into
+   * @return false if no pose has been published yet
+   */
+  public boolean getPoseAt(double timestampSeconds, double[] out) {
+    return poseHistory.sample(timestampSeconds, out);
+  }
+
+  /**
+   * Get the interpolated pose at a timestamp. Main thread only; use {@link #getPoseAt(double,
+   * double[])} elsewhere.
+   *
+   * @param timestampSeconds the time to sample at. Clamped to the kept history
+   * @return the pose, or the latest pose if none has been recorded
+   */
+  public Pose2d getPoseAt(double timestampSeconds) {
+    if (!poseHistory.sample(timestampSeconds, poseScratch)) {
+      return getRobotPosition();
+    }
+    return new Pose2d(poseScratch[0], poseScratch[1], new Rotation2d(poseScratch[2]));
+  }
+
+  /**
+   * Predict the pose {@code dt} seconds after the newest measurement, holding the measured velocity
+   * constant. This does not allocate and is safe from any thread.
+   *
+   * @param dtSeconds time past the newest measurement
+   * @param out array of length 3 to write {@code {x, y, theta}} into
+   * @return false if no pose has been published yet
+   */
+  public boolean predictPose(double dtSeconds, double[] out) {
+    return poseHistory.predict(dtSeconds, out);
+  }
+
+  /**
+   * Predict the pose {@code dt} seconds after the newest measurement. Main thread only; use {@link
+   * #predictPose(double, double[])} elsewhere.
+   *
+   * @param dtSeconds time past the newest measurement
+   * @return the predicted pose, or the latest pose if none has been recorded
+   */
+  public Pose2d predictPose(double dtSeconds) {
+    if (!poseHistory.predict(dtSeconds, poseScratch)) {
+      return getRobotPosition();
+    }
+    return new Pose2d(poseScratch[0], poseScratch[1], new Rotation2d(poseScratch[2]));
+  }
+
+  public Pose2d getRobotPosition() {
+    return snapshot.pose();
+  }
+
+  public ChassisSpeeds getRobotRelativeVelocity() {
+    return snapshot.robotRelativeVelocity();
+  }
+
+  @AutoLogOutput(key = "RobotState/Goal")
+  public Goal getGoal() {
+    return snapshot.goal();
+  }
 }
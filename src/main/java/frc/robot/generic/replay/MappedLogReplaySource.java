@@ -0,0 +1,374 @@
+package frc.robot.generic.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.littletonrobotics.junction.LogReplaySource;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+
+/**
+ * A replay source that can start and stop anywhere in a log, to replay just the part of a match
+ * being debugged.
+ *
+ * <p>The log is memory mapped. On first open, the timestamp of every cycle and the start of auto
+ * and teleop are indexed, and the index is saved beside the log as {@code <log>.idx} for later
+ * opens. To seek, the records before the start are scanned for the latest value of every input,
+ * which is loaded before the first cycle, so the robot code sees the same inputs it would have seen
+ * in a full replay. Its own state (odometry, estimators, commands) starts fresh, so start a second
+ * or two before the interesting part.
+ *
+ * <p>Configured with system properties, or environment variables of the same name in upper case
+ * with underscores ({@code REPLAY_START}), so it can be set when replaying through gradle:
+ *
+ * <ul>
+ *   <li>{@value #startProperty}: where to start. Seconds into the log, {@code auto} or {@code
+ *       teleop}
+ *   <li>{@value #durationProperty}: seconds to replay from the start
+ *   <li>{@value #skipProperty}: comma separated key prefixes to leave out of the replay, like
+ *       {@code PowerDistribution/}. Only skip inputs the code being debugged doesn't read
+ * </ul>
+ */
+public class MappedLogReplaySource implements LogReplaySource {
+  public static final String startProperty = "replay.start";
+  public static final String durationProperty = "replay.duration";
+  public static final String skipProperty = "replay.skip";
+
+  private static final long indexMagic = 0x5750494c4f474958L; // "WPILOGIX"
+  private static final int indexVersion = 1;
+
+  private final Path path;
+  private final String start;
+  private final double durationSeconds;
+  private final String[] skippedPrefixes;
+
+  private MappedWPILOG log;
+  private Index index;
+  /* Table keys by entry id, null for skipped entries */
+  private final Map<Integer, String> keys = new HashMap<>();
+  private long endTimestamp = Long.MAX_VALUE;
+  private boolean seekPending = false;
+  private long startTimestamp = 0;
+
+  /** The timestamp of each cycle, and the cycles auto and teleop start in. */
+  private record Index(long[] timestamps, int autoCycle, int teleopCycle) {}
+
+  /** Where the latest value of a key is in the log. */
+  private record Latest(String type, int position, int size) {}
+
+  /**
+   * Replay a log, configured from system properties.
+   *
+   * @param path the log file
+   */
+  public MappedLogReplaySource(String path) {
+    this(
+        path,
+        config(startProperty),
+        config(durationProperty) == null
+            ? Double.POSITIVE_INFINITY
+            : Double.parseDouble(config(durationProperty)),
+        config(skipProperty) == null ? "" : config(skipProperty));
+  }
+
+  /**
+   * @param path the log file
+   * @param start where to start. Seconds into the log, {@code auto}, {@code teleop}, or null for
+   *     the beginning
+   * @param durationSeconds how long to replay for
+   * @param skippedPrefixes comma separated key prefixes to leave out
+   */
+  public MappedLogReplaySource(
+      String path, String start, double durationSeconds, String skippedPrefixes) {
+    this.path = Path.of(path);
+    this.start = start;
+    this.durationSeconds = durationSeconds;
+    this.skippedPrefixes =
+        Arrays.stream(skippedPrefixes.split(",")).filter(s -> !s.isBlank()).toArray(String[]::new);
+  }
+
+  /**
+   * @return if a start or duration is configured, so a window of the log should be replayed
+   */
+  public static boolean isWindowed() {
+    return config(startProperty) != null || config(durationProperty) != null;
+  }
+
+  private static String config(String property) {
+    String value = System.getProperty(property);
+    return value != null
+        ? value
+        : System.getenv(property.toUpperCase(Locale.ROOT).replace('.', '_'));
+  }
+
+  @Override
+  public void start() {
+    try {
+      log = new MappedWPILOG(path);
+      index = loadIndex();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to open replay log " + path, e);
+    }
+    if (index.timestamps().length == 0) {
+      return;
+    }
+
+    int startCycle = findStartCycle();
+    startTimestamp = index.timestamps()[startCycle];
+    if (Double.isFinite(durationSeconds)) {
+      endTimestamp = startTimestamp + (long) (durationSeconds * 1e6);
+    }
+    seekPending = startCycle > 0;
+    double startSeconds = (startTimestamp - index.timestamps()[0]) / 1e6;
+    System.out.printf("Replaying %s from %.3f s%n", path.getFileName(), startSeconds);
+  }
+
+  @Override
+  public boolean updateTable(LogTable table) {
+    if (log == null) {
+      return false;
+    }
+    if (seekPending) {
+      seekPending = false;
+      loadStateBefore(table, startTimestamp);
+    }
+
+    long timestamp = log.peekTimestamp();
+    if (timestamp == Long.MAX_VALUE || timestamp > endTimestamp) {
+      return false;
+    }
+    table.setTimestamp(timestamp);
+    while (log.next(timestamp)) {
+      String key = keyOf(log.entry());
+      if (key != null) {
+        put(table, key, log.entry().type(), log.payloadPosition(), log.payloadSize());
+      }
+    }
+    return true;
+  }
+
+  private int findStartCycle() {
+    if (start == null) {
+      return 0;
+    }
+    switch (start) {
+      case "auto":
+        return requireMarker(index.autoCycle(), "auto");
+      case "teleop":
+        return requireMarker(index.teleopCycle(), "teleop");
+      default:
+        long target = index.timestamps()[0] + (long) (Double.parseDouble(start) * 1e6);
+        int cycle = Arrays.binarySearch(index.timestamps(), target);
+        return Math.min(cycle >= 0 ? cycle : -cycle - 1, index.timestamps().length - 1);
+    }
+  }
+
+  private static int requireMarker(int cycle, String name) {
+    if (cycle < 0) {
+      throw new IllegalArgumentException("The replay log has no " + name + " period");
+    }
+    return cycle;
+  }
+
+  /** Scan the records before {@code timestamp}, and put the latest value of every entry. */
+  private void loadStateBefore(LogTable table, long timestamp) {
+    Map<String, Latest> latestValues = new HashMap<>();
+    while (log.next(timestamp - 1)) {
+      String key = keyOf(log.entry());
+      if (key != null) {
+        latestValues.put(
+            key, new Latest(log.entry().type(), log.payloadPosition(), log.payloadSize()));
+      }
+    }
+    for (Map.Entry<String, Latest> latest : latestValues.entrySet()) {
+      Latest value = latest.getValue();
+      put(table, latest.getKey(), value.type(), value.position(), value.size());
+    }
+  }
+
+  /** The table key of an entry, or null if it isn't replayed. */
+  private String keyOf(MappedWPILOG.Entry entry) {
+    if (keys.containsKey(entry.id())) {
+      return keys.get(entry.id());
+    }
+    String key = entry.name().startsWith("/") ? entry.name().substring(1) : entry.name();
+    if (key.equals("Timestamp")
+        || key.startsWith("RealOutputs/")
+        || key.startsWith("ReplayOutputs/")) {
+      key = null;
+    } else {
+      for (String prefix : skippedPrefixes) {
+        if (key.startsWith(prefix)) {
+          key = null;
+          break;
+        }
+      }
+    }
+    keys.put(entry.id(), key);
+    return key;
+  }
+
+  private void put(LogTable table, String key, String type, int position, int size) {
+    ByteBuffer buffer = log.buffer();
+    switch (type) {
+      case "boolean":
+        table.put(key, buffer.get(position) != 0);
+        break;
+      case "int64":
+        table.put(key, buffer.getLong(position));
+        break;
+      case "float":
+        table.put(key, buffer.getFloat(position));
+        break;
+      case "double":
+        table.put(key, buffer.getDouble(position));
+        break;
+      case "string":
+        table.put(key, readString(buffer, position, size));
+        break;
+      case "boolean[]":
+        boolean[] booleans = new boolean[size];
+        for (int i = 0; i < size; i++) {
+          booleans[i] = buffer.get(position + i) != 0;
+        }
+        table.put(key, booleans);
+        break;
+      case "int64[]":
+        long[] integers = new long[size / 8];
+        for (int i = 0; i < integers.length; i++) {
+          integers[i] = buffer.getLong(position + i * 8);
+        }
+        table.put(key, integers);
+        break;
+      case "float[]":
+        float[] floats = new float[size / 4];
+        for (int i = 0; i < floats.length; i++) {
+          floats[i] = buffer.getFloat(position + i * 4);
+        }
+        table.put(key, floats);
+        break;
+      case "double[]":
+        double[] doubles = new double[size / 8];
+        for (int i = 0; i < doubles.length; i++) {
+          doubles[i] = buffer.getDouble(position + i * 8);
+        }
+        table.put(key, doubles);
+        break;
+      case "string[]":
+        String[] strings = new String[buffer.getInt(position)];
+        int offset = position + 4;
+        for (int i = 0; i < strings.length; i++) {
+          int length = buffer.getInt(offset);
+          strings[i] = readString(buffer, offset + 4, length);
+          offset += 4 + length;
+        }
+        table.put(key, strings);
+        break;
+      default:
+        // Raw, struct, proto, json and so on keep their type
+        byte[] raw = new byte[size];
+        buffer.get(position, raw);
+        table.put(key, new LogValue(raw, type.equals("raw") ? null : type));
+        break;
+    }
+  }
+
+  private static String readString(ByteBuffer buffer, int position, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(position, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Load the index beside the log, or build and save it if it is missing or stale. */
+  private Index loadIndex() throws IOException {
+    Path indexPath = path.resolveSibling(path.getFileName() + ".idx");
+    long modified = Files.getLastModifiedTime(path).toMillis();
+    if (Files.exists(indexPath)) {
+      try (DataInputStream in =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+        if (in.readLong() == indexMagic
+            && in.readInt() == indexVersion
+            && in.readLong() == log.size()
+            && in.readLong() == modified) {
+          long[] timestamps = new long[in.readInt()];
+          for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = in.readLong();
+          }
+          return new Index(timestamps, in.readInt(), in.readInt());
+        }
+      } catch (IOException e) {
+        // Rebuild it
+      }
+    }
+
+    Index built = buildIndex();
+    // Building the index read through the log, so start over
+    log = new MappedWPILOG(path);
+    try (DataOutputStream out =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath)))) {
+      out.writeLong(indexMagic);
+      out.writeInt(indexVersion);
+      out.writeLong(log.size());
+      out.writeLong(modified);
+      out.writeInt(built.timestamps().length);
+      for (long timestamp : built.timestamps()) {
+        out.writeLong(timestamp);
+      }
+      out.writeInt(built.autoCycle());
+      out.writeInt(built.teleopCycle());
+    } catch (IOException e) {
+      // The index is only a cache, so replay can go on without saving it
+      System.err.println("Failed to save replay index: " + e.getMessage());
+    }
+    return built;
+  }
+
+  /** Read the whole log once, noting when each cycle is and when auto and teleop start. */
+  private Index buildIndex() {
+    long[] timestamps = new long[4096];
+    int cycles = 0;
+    int autoCycle = -1;
+    int teleopCycle = -1;
+    boolean enabled = false;
+    boolean autonomous = false;
+    while (true) {
+      long timestamp = log.peekTimestamp();
+      if (timestamp == Long.MAX_VALUE) {
+        break;
+      }
+      if (cycles == 0 || timestamp != timestamps[cycles - 1]) {
+        if (cycles == timestamps.length) {
+          timestamps = Arrays.copyOf(timestamps, cycles * 2);
+        }
+        timestamps[cycles++] = timestamp;
+      }
+      if (!log.next(timestamp)) {
+        continue;
+      }
+      String name = log.entry().name();
+      if (name.endsWith("DriverStation/Enabled")) {
+        enabled = log.buffer().get(log.payloadPosition()) != 0;
+      } else if (name.endsWith("DriverStation/Autonomous")) {
+        autonomous = log.buffer().get(log.payloadPosition()) != 0;
+      } else {
+        continue;
+      }
+      if (enabled && autonomous && autoCycle < 0) {
+        autoCycle = cycles - 1;
+      } else if (enabled && !autonomous && teleopCycle < 0 && autoCycle >= 0) {
+        teleopCycle = cycles - 1;
+      }
+    }
+    return new Index(Arrays.copyOf(timestamps, cycles), autoCycle, teleopCycle);
+  }
+}
@@ -0,0 +1,261 @@
+package frc.robot.generic.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams the records of a WPILOG file through a memory map.
+ *
+ * <p>{@link #next()} steps through the data records in file order. Control records are handled
+ * along the way, so {@link #entry()} always describes the current record. Payloads are read in
+ * place from {@link #buffer()}, which is little endian, at {@link #payloadPosition()}.
+ *
+ * <p>Logs over 2 GB can't be mapped in one piece, and are rejected.
+ */
+public final class MappedWPILOG {
+  /**
+   * @param id the entry id
+   * @param name the entry name, like {@code /RealOutputs/Drive/Pose}
+   * @param type the type string, like {@code double} or {@code struct:Pose2d}
+   * @param metadata the metadata string
+   */
+  public record Entry(int id, String name, String type, String metadata) {}
+
+  private final Path path;
+  private final ByteBuffer buffer;
+  private final Map<Integer, Entry> entries = new HashMap<>();
+
+  private int position;
+  private int recordPosition;
+  private Entry entry;
+  private long timestamp;
+  private int payloadPosition;
+  private int payloadSize;
+
+  /**
+   * Map a log.
+   *
+   * @param path the log file
+   * @throws IOException if the file can't be read, is too large, or isn't a WPILOG
+   */
+  public MappedWPILOG(Path path) throws IOException {
+    this.path = path;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException(path + " is too large to map");
+      }
+      buffer =
+          channel
+              .map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+              .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    if (buffer.limit() < 12 || !"WPILOG".equals(readString(0, 6)) || buffer.getShort(6) < 0x0100) {
+      throw new IOException(path + " is not a WPILOG file");
+    }
+    position = 12 + buffer.getInt(8);
+  }
+
+  /**
+   * Advance to the next data record.
+   *
+   * @return false at the end of the log
+   */
+  public boolean next() {
+    return next(Long.MAX_VALUE);
+  }
+
+  /**
+   * Advance to the next data record, unless it is after {@code maxTimestamp}.
+   *
+   * @param maxTimestamp the latest timestamp to advance to, in microseconds
+   * @return false at the end of the log, or if the next record is after {@code maxTimestamp}. The
+   *     log is left before that record
+   */
+  public boolean next(long maxTimestamp) {
+    while (position < buffer.limit()) {
+      int header = buffer.get(position) & 0xff;
+      int idLength = (header & 0x3) + 1;
+      int sizeLength = ((header >> 2) & 0x3) + 1;
+      int timestampLength = ((header >> 4) & 0x7) + 1;
+      int headerEnd = position + 1 + idLength + sizeLength + timestampLength;
+      if (headerEnd > buffer.limit()) {
+        // Truncated, like a log from a robot that lost power
+        position = buffer.limit();
+        return false;
+      }
+      int id = (int) readVariable(position + 1, idLength);
+      int size = (int) readVariable(position + 1 + idLength, sizeLength);
+      long recordTimestamp = readVariable(position + 1 + idLength + sizeLength, timestampLength);
+      if (headerEnd + size > buffer.limit()) {
+        position = buffer.limit();
+        return false;
+      }
+      if (recordTimestamp > maxTimestamp) {
+        return false;
+      }
+      int start = position;
+      position = headerEnd + size;
+
+      if (id == 0) {
+        readControl(headerEnd, size);
+        continue;
+      }
+      Entry recordEntry = entries.get(id);
+      if (recordEntry == null) {
+        continue;
+      }
+      entry = recordEntry;
+      recordPosition = start;
+      timestamp = recordTimestamp;
+      payloadPosition = headerEnd;
+      payloadSize = size;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return the timestamp of the next record, in microseconds, or {@link Long#MAX_VALUE} at the end
+   *     of the log. This does not advance
+   */
+  public long peekTimestamp() {
+    if (position >= buffer.limit()) {
+      return Long.MAX_VALUE;
+    }
+    int header = buffer.get(position) & 0xff;
+    int idLength = (header & 0x3) + 1;
+    int sizeLength = ((header >> 2) & 0x3) + 1;
+    int timestampLength = ((header >> 4) & 0x7) + 1;
+    if (position + 1 + idLength + sizeLength + timestampLength > buffer.limit()) {
+      return Long.MAX_VALUE;
+    }
+    return readVariable(position + 1 + idLength + sizeLength, timestampLength);
+  }
+
+  private void readControl(int start, int size) {
+    if (size < 5) {
+      return;
+    }
+    int type = buffer.get(start);
+    int id = buffer.getInt(start + 1);
+    int offset = start + 5;
+    switch (type) {
+      case 0: // Start
+        String name = readPrefixedString(offset);
+        offset += 4 + buffer.getInt(offset);
+        String entryType = readPrefixedString(offset);
+        offset += 4 + buffer.getInt(offset);
+        entries.put(id, new Entry(id, name, entryType, readPrefixedString(offset)));
+        break;
+      case 1: // Finish
+        entries.remove(id);
+        break;
+      case 2: // Set metadata
+        Entry existing = entries.get(id);
+        if (existing != null) {
+          entries.put(
+              id, new Entry(id, existing.name(), existing.type(), readPrefixedString(offset)));
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  private long readVariable(int start, int length) {
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      value |= (buffer.get(start + i) & 0xffL) << (8 * i);
+    }
+    return value;
+  }
+
+  private String readPrefixedString(int start) {
+    return readString(start + 4, buffer.getInt(start));
+  }
+
+  private String readString(int start, int length) {
+    byte[] bytes = new byte[length];
+    buffer.get(start, bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return the entry of the current record
+   */
+  public Entry entry() {
+    return entry;
+  }
+
+  /**
+   * @return the position of the start of the current record in {@link #buffer()}
+   */
+  public int recordPosition() {
+    return recordPosition;
+  }
+
+  /**
+   * @return the position of the next record in {@link #buffer()}
+   */
+  public int position() {
+    return position;
+  }
+
+  /**
+   * @return the size of the log, in bytes
+   */
+  public int size() {
+    return buffer.limit();
+  }
+
+  /**
+   * @return the timestamp of the current record, in microseconds
+   */
+  public long timestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return the position of the current payload in {@link #buffer()}
+   */
+  public int payloadPosition() {
+    return payloadPosition;
+  }
+
+  /**
+   * @return the size of the current payload, in bytes
+   */
+  public int payloadSize() {
+    return payloadSize;
+  }
+
+  /**
+   * @return the whole mapped log. Read it with absolute gets only
+   */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the current payload, copied
+   */
+  public byte[] copyPayload() {
+    byte[] payload = new byte[payloadSize];
+    buffer.get(payloadPosition, payload);
+    return payload;
+  }
+
+  /**
+   * @return the log file
+   */
+  public Path path() {
+    return path;
+  }
+}
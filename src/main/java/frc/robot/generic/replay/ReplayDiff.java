@@ -0,0 +1,298 @@
+package frc.robot.generic.replay;
+
+import frc.robot.generic.util.BufferedLogWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import org.littletonrobotics.junction.LogFileUtil;
+
+/**
+ * Checks that a replay reproduced the robot, by comparing the outputs of the original log to the
+ * outputs of the replayed ({@code _sim}) log.
+ *
+ * <p>Both logs are streamed side by side, a cycle at a time. After each cycle, every output that
+ * changed on either side is compared, with {@code RealOutputs/<key>} in the original against
+ * {@code ReplayOutputs/<key>} in the replay. Doubles and floats are compared with a relative
+ * tolerance, everything else byte for byte. Outputs that measure the run itself, like loop
+ * timing, are skipped. So are cycles whose outputs the {@link BufferedLogWriter} shed from the
+ * original log; their changes are compared on the next full cycle instead.
+ *
+ * <p>A divergence means some code path depends on something that isn't logged as an input. The
+ * report lists the diverging keys in order of their first divergence, since the first is usually
+ * the cause and the rest its consequences. Keys with a known source of order dependence get a
+ * hint.
+ *
+ * <p>Run with {@code ./gradlew replayDiff -PreplayDiffArgs="<log> [replayed log] [tolerance]"}.
+ * Exits with 1 if the logs diverge.
+ */
+public final class ReplayDiff {
+  private static final String realPrefix = "/RealOutputs/";
+  private static final String replayPrefix = "/ReplayOutputs/";
+  private static final double defaultTolerance = 1e-9;
+  private static final int maxReported = 50;
+
+  /** Outputs that differ between runs by design */
+  private static final String[] ignoredPrefixes = {
+    "LoggedRobot/", "Logger/", "LoopProfiler/", "LoopWatchdog/", "LogWriter/"
+  };
+
+  /** Outputs whose value depends on the order code runs in, and why */
+  private static final String[][] hints = {
+    {
+      "ShotCalculator/",
+      "ShotCalculator caches its result until the hood or flywheel periodic clears it, so the shot"
+          + " is computed from whatever RobotState holds when it is first requested. Check that"
+          + " subsystems and commands are registered and scheduled in the same order"
+    },
+    {
+      "Turret/Pot/",
+      "The pot offset estimator integrates over the time between turret periodics. Check that the"
+          + " periodic runs on every cycle in both runs"
+    }
+  };
+
+  private static class Value {
+    final String type;
+    final byte[] payload;
+
+    Value(String type, byte[] payload) {
+      this.type = type;
+      this.payload = payload;
+    }
+  }
+
+  private static class Divergence {
+    final String key;
+    final long firstTimestamp;
+    final String original;
+    final String replayed;
+    long cycles = 0;
+
+    Divergence(String key, long firstTimestamp, String original, String replayed) {
+      this.key = key;
+      this.firstTimestamp = firstTimestamp;
+      this.original = original;
+      this.replayed = replayed;
+    }
+  }
+
+  private ReplayDiff() {}
+
+  public static void main(String... args) throws Exception {
+    if (args.length < 1 || args[0].isEmpty()) {
+      System.err.println("Usage: ReplayDiff <log> [replayed log] [tolerance]");
+      System.exit(2);
+    }
+    String originalPath = args[0];
+    String replayedPath =
+        args.length > 1 ? args[1] : LogFileUtil.addPathSuffix(originalPath, "_sim");
+    double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : defaultTolerance;
+
+    MappedWPILOG original = new MappedWPILOG(Path.of(originalPath));
+    MappedWPILOG replayed = new MappedWPILOG(Path.of(replayedPath));
+    Map<String, Value> originalValues = new HashMap<>();
+    Map<String, Value> replayedValues = new HashMap<>();
+    Set<String> changed = new HashSet<>();
+    Map<String, Divergence> divergences = new HashMap<>();
+    Set<String> onlyOriginal = new TreeSet<>();
+    Set<String> onlyReplayed = new TreeSet<>();
+    long cycles = 0;
+    long shedCycles = 0;
+    boolean shed = false;
+
+    while (true) {
+      long timestamp = Math.min(original.peekTimestamp(), replayed.peekTimestamp());
+      if (timestamp == Long.MAX_VALUE) {
+        break;
+      }
+      shed = readCycle(original, realPrefix, timestamp, originalValues, changed, shed);
+      readCycle(replayed, replayPrefix, timestamp, replayedValues, changed, false);
+      cycles++;
+      if (shed) {
+        // The original outputs are stale, keep the changes for the next full cycle
+        shedCycles++;
+        continue;
+      }
+
+      for (String key : changed) {
+        Value a = originalValues.get(key);
+        Value b = replayedValues.get(key);
+        if (a == null || b == null) {
+          (a == null ? onlyReplayed : onlyOriginal).add(key);
+          continue;
+        }
+        if (!matches(a, b, tolerance)) {
+          divergences
+              .computeIfAbsent(key, k -> new Divergence(k, timestamp, describe(a), describe(b)))
+              .cycles++;
+        }
+      }
+      changed.clear();
+    }
+
+    // Keys that appeared on one side only, and later on the other, aren't missing
+    onlyOriginal.removeIf(replayedValues::containsKey);
+    onlyReplayed.removeIf(originalValues::containsKey);
+
+    System.out.println("Compared " + cycles + " cycles of " + originalPath);
+    if (shedCycles > 0) {
+      System.out.println("Skipped " + shedCycles + " cycles with outputs shed by the log writer");
+    }
+    report(divergences, onlyOriginal, onlyReplayed);
+    System.exit(divergences.isEmpty() ? 0 : 1);
+  }
+
+  /**
+   * Read every record up to {@code timestamp}, keeping the outputs.
+   *
+   * @param shed if the outputs were shed as of the last cycle
+   * @return if the outputs were shed as of this cycle
+   */
+  private static boolean readCycle(
+      MappedWPILOG log,
+      String prefix,
+      long timestamp,
+      Map<String, Value> values,
+      Set<String> keys,
+      boolean shed) {
+    while (log.next(timestamp)) {
+      String name = log.entry().name();
+      if (name.equals(BufferedLogWriter.shedMarkerKey)) {
+        shed = log.copyPayload()[0] != 0;
+        continue;
+      }
+      if (!name.startsWith(prefix)) {
+        continue;
+      }
+      String key = name.substring(prefix.length());
+      if (isIgnored(key)) {
+        continue;
+      }
+      values.put(key, new Value(log.entry().type(), log.copyPayload()));
+      keys.add(key);
+    }
+    return shed;
+  }
+
+  private static boolean isIgnored(String key) {
+    for (String prefix : ignoredPrefixes) {
+      if (key.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(Value a, Value b, double tolerance) {
+    if (!a.type.equals(b.type)) {
+      return false;
+    }
+    if (Arrays.equals(a.payload, b.payload)) {
+      return true;
+    }
+    if (a.payload.length != b.payload.length) {
+      return false;
+    }
+    ByteBuffer bufferA = ByteBuffer.wrap(a.payload).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer bufferB = ByteBuffer.wrap(b.payload).order(ByteOrder.LITTLE_ENDIAN);
+    switch (a.type) {
+      case "double":
+      case "double[]":
+        for (int i = 0; i < a.payload.length; i += 8) {
+          if (!close(bufferA.getDouble(i), bufferB.getDouble(i), tolerance)) {
+            return false;
+          }
+        }
+        return true;
+      case "float":
+      case "float[]":
+        for (int i = 0; i < a.payload.length; i += 4) {
+          if (!close(bufferA.getFloat(i), bufferB.getFloat(i), tolerance)) {
+            return false;
+          }
+        }
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean close(double a, double b, double tolerance) {
+    if (Double.isNaN(a) || Double.isNaN(b)) {
+      return Double.isNaN(a) && Double.isNaN(b);
+    }
+    return Math.abs(a - b) <= tolerance * Math.max(1, Math.max(Math.abs(a), Math.abs(b)));
+  }
+
+  private static String describe(Value value) {
+    ByteBuffer buffer = ByteBuffer.wrap(value.payload).order(ByteOrder.LITTLE_ENDIAN);
+    switch (value.type) {
+      case "double":
+        return Double.toString(buffer.getDouble(0));
+      case "float":
+        return Float.toString(buffer.getFloat(0));
+      case "int64":
+        return Long.toString(buffer.getLong(0));
+      case "boolean":
+        return Boolean.toString(value.payload[0] != 0);
+      case "string":
+        return '"' + new String(value.payload, StandardCharsets.UTF_8) + '"';
+      default:
+        return value.type + " (" + value.payload.length + " bytes)";
+    }
+  }
+
+  private static void report(
+      Map<String, Divergence> divergences, Set<String> onlyOriginal, Set<String> onlyReplayed) {
+    if (!onlyOriginal.isEmpty()) {
+      System.out.println("Outputs only in the original log: " + String.join(", ", onlyOriginal));
+    }
+    if (!onlyReplayed.isEmpty()) {
+      System.out.println("Outputs only in the replayed log: " + String.join(", ", onlyReplayed));
+    }
+    if (divergences.isEmpty()) {
+      System.out.println("Replay is deterministic");
+      return;
+    }
+
+    List<Divergence> sorted = new ArrayList<>(divergences.values());
+    sorted.sort(
+        Comparator.comparingLong((Divergence d) -> d.firstTimestamp).thenComparing(d -> d.key));
+    System.out.println(sorted.size() + " outputs diverged, in order of first divergence:");
+    for (int i = 0; i < Math.min(sorted.size(), maxReported); i++) {
+      Divergence divergence = sorted.get(i);
+      System.out.println(
+          String.format(
+              Locale.ROOT,
+              "  %.6f s  %s  (%d cycles)  original %s, replayed %s",
+              divergence.firstTimestamp / 1e6,
+              divergence.key,
+              divergence.cycles,
+              divergence.original,
+              divergence.replayed));
+    }
+    if (sorted.size() > maxReported) {
+      System.out.println("  ... and " + (sorted.size() - maxReported) + " more");
+    }
+
+    Set<String> printed = new HashSet<>();
+    for (Divergence divergence : sorted) {
+      for (String[] hint : hints) {
+        if (divergence.key.startsWith(hint[0]) && printed.add(hint[0])) {
+          System.out.println("Hint for " + hint[0] + ": " + hint[1]);
+        }
+      }
+    }
+  }
+}
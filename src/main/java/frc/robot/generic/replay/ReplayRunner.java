@@ -0,0 +1,125 @@
+package frc.robot.generic.replay;
+
+import frc.robot.generic.Main;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Replays every log in a folder, in parallel, and writes a CSV report of the replays.
+ *
+ * <p>Each log is replayed by the robot code in its own JVM, exactly like a normal replay (the robot
+ * runs in replay mode and writes a {@code _sim} log next to the original). The replay collects a
+ * {@link ReplaySummary}, which becomes a row of the report. The output of each replay is kept next
+ * to the log, with a {@code .replay.txt} extension.
+ *
+ * <p>Run with {@code ./gradlew replayBatch -PreplayArgs="<folder> [jobs] [report]"}. By default,
+ * half of the processors are used, and the report is written to {@code replay_report.csv} in the
+ * folder.
+ */
+public final class ReplayRunner {
+  private static final long timeoutMinutes = 30;
+
+  private record Result(Path log, int exitCode, double seconds, Properties summary) {}
+
+  private ReplayRunner() {}
+
+  public static void main(String... args) throws Exception {
+    Path folder = Path.of(args.length > 0 ? args[0] : "logs");
+    int jobs =
+        args.length > 1
+            ? Integer.parseInt(args[1])
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    Path report = args.length > 2 ? Path.of(args[2]) : folder.resolve("replay_report.csv");
+
+    List<Path> logs;
+    try (Stream<Path> files = Files.list(folder)) {
+      logs =
+          files
+              .filter(
+                  file -> {
+                    String name = file.getFileName().toString();
+                    return name.endsWith(".wpilog") && !name.endsWith("_sim.wpilog");
+                  })
+              .sorted()
+              .toList();
+    }
+    System.out.println("Replaying " + logs.size() + " logs with " + jobs + " jobs");
+
+    ExecutorService pool = Executors.newFixedThreadPool(jobs);
+    List<Future<Result>> futures = new ArrayList<>();
+    for (Path log : logs) {
+      futures.add(pool.submit(() -> replay(log)));
+    }
+    pool.shutdown();
+
+    int failures = 0;
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+      out.print("Log,ExitCode,Seconds");
+      for (String column : ReplaySummary.columns) {
+        out.print("," + column);
+      }
+      out.println();
+      for (Future<Result> future : futures) {
+        Result result = future.get();
+        if (result.exitCode() != 0) {
+          failures++;
+        }
+        out.print(result.log().getFileName() + "," + result.exitCode() + "," + result.seconds());
+        for (String column : ReplaySummary.columns) {
+          out.print("," + result.summary().getProperty(column, ""));
+        }
+        out.println();
+        System.out.println(
+            "Replayed " + result.log().getFileName() + " (exit code " + result.exitCode() + ")");
+      }
+    }
+    System.out.println("Wrote " + report + ", " + failures + " failed");
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static Result replay(Path log) throws IOException, InterruptedException {
+    Path summaryFile = Files.createTempFile("replay_summary", ".properties");
+    ProcessBuilder builder =
+        new ProcessBuilder(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp",
+            System.getProperty("java.class.path"),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            "-D" + ReplaySummary.summaryProperty + "=" + summaryFile,
+            Main.class.getName());
+    // Read by LogFileUtil.findReplayLog()
+    builder.environment().put("AKIT_LOG_PATH", log.toAbsolutePath().toString());
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(log.resolveSibling(log.getFileName() + ".replay.txt").toFile());
+
+    long start = System.nanoTime();
+    Process process = builder.start();
+    int exitCode;
+    if (process.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+      exitCode = process.exitValue();
+    } else {
+      process.destroyForcibly();
+      exitCode = -1;
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    Properties summary = new Properties();
+    try (InputStream in = Files.newInputStream(summaryFile)) {
+      summary.load(in);
+    } finally {
+      Files.deleteIfExists(summaryFile);
+    }
+    return new Result(log, exitCode, seconds, summary);
+  }
+}
@@ -0,0 +1,147 @@
+package frc.robot.generic.replay;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Collects a summary of a headless replay, for {@link ReplayRunner}.
+ *
+ * <p>A replay is headless when the {@value #summaryProperty} system property is set to the path to
+ * write the summary to. The robot then runs in replay mode, and the summary is written when the
+ * replay exits. Otherwise, recording is a no-op.
+ */
+public final class ReplaySummary {
+  public static final String summaryProperty = "replay.summary";
+
+  /** The columns of the summary, in report order */
+  public static final String[] columns = {
+    "Loops",
+    "LoopMeanMs",
+    "LoopP99Ms",
+    "LoopMaxMs",
+    "VisionObservations",
+    "VisionResidualRmsM",
+    "VisionResidualMaxM",
+    "Shots",
+    "ShotsAtSpeed",
+    "ShotAccuracy"
+  };
+
+  private static final String path = System.getProperty(summaryProperty);
+
+  /* Loop times are kept in a histogram of 0.1 ms buckets, so p99 doesn't need every sample */
+  private static final double bucketMs = 0.1;
+  private static final long[] loopHistogram = new long[1000];
+  private static long loops = 0;
+  private static double loopTotalMs = 0;
+  private static double loopMaxMs = 0;
+
+  private static long visionObservations = 0;
+  private static double visionResidualSquares = 0;
+  private static double visionResidualMax = 0;
+
+  private static long shots = 0;
+  private static long shotsAtSpeed = 0;
+
+  static {
+    if (path != null) {
+      Runtime.getRuntime().addShutdownHook(new Thread(ReplaySummary::write, "ReplaySummary"));
+    }
+  }
+
+  private ReplaySummary() {}
+
+  /**
+   * @return if this is a headless replay
+   */
+  public static boolean isHeadless() {
+    return path != null;
+  }
+
+  /**
+   * Record the time the robot loop took to run.
+   *
+   * @param loopNanos the duration of the loop
+   */
+  public static void recordLoop(long loopNanos) {
+    if (path == null) {
+      return;
+    }
+    double ms = loopNanos / 1e6;
+    loops++;
+    loopTotalMs += ms;
+    loopMaxMs = Math.max(loopMaxMs, ms);
+    loopHistogram[Math.min((int) (ms / bucketMs), loopHistogram.length - 1)]++;
+  }
+
+  /**
+   * Record the distance between an accepted vision pose and the pose estimate at its timestamp.
+   *
+   * @param residualMeters the distance
+   */
+  public static void recordVisionResidual(double residualMeters) {
+    if (path == null) {
+      return;
+    }
+    visionObservations++;
+    visionResidualSquares += residualMeters * residualMeters;
+    visionResidualMax = Math.max(visionResidualMax, residualMeters);
+  }
+
+  /**
+   * Record a ball leaving the shooter.
+   *
+   * @param atSpeed if the shooter was predicted to be at speed for it
+   */
+  public static void recordShot(boolean atSpeed) {
+    if (path == null) {
+      return;
+    }
+    shots++;
+    if (atSpeed) {
+      shotsAtSpeed++;
+    }
+  }
+
+  private static synchronized void write() {
+    Properties summary = new Properties();
+    summary.setProperty("Loops", Long.toString(loops));
+    summary.setProperty("LoopMeanMs", format(loops == 0 ? 0 : loopTotalMs / loops));
+    summary.setProperty("LoopP99Ms", format(loopPercentile(0.99)));
+    summary.setProperty("LoopMaxMs", format(loopMaxMs));
+    summary.setProperty("VisionObservations", Long.toString(visionObservations));
+    summary.setProperty(
+        "VisionResidualRmsM",
+        format(
+            visionObservations == 0 ? 0 : Math.sqrt(visionResidualSquares / visionObservations)));
+    summary.setProperty("VisionResidualMaxM", format(visionResidualMax));
+    summary.setProperty("Shots", Long.toString(shots));
+    summary.setProperty("ShotsAtSpeed", Long.toString(shotsAtSpeed));
+    summary.setProperty("ShotAccuracy", format(shots == 0 ? 0 : shotsAtSpeed / (double) shots));
+    try (OutputStream out = Files.newOutputStream(Path.of(path))) {
+      summary.store(out, null);
+    } catch (IOException e) {
+      System.err.println("Failed to write replay summary: " + e.getMessage());
+    }
+  }
+
+  private static double loopPercentile(double percentile) {
+    long target = (long) Math.ceil(loops * percentile);
+    long seen = 0;
+    for (int i = 0; i < loopHistogram.length; i++) {
+      seen += loopHistogram[i];
+      if (seen >= target && seen > 0) {
+        return (i + 1) * bucketMs;
+      }
+    }
+    return 0;
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+}
@@ -0,0 +1,197 @@
+package frc.robot.generic.sim;
+
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import frc.robot.generic.RobotState;
+import frc.robot.generic.util.SimTiming;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Runs one trial of a PathPlanner auto in the sim, for {@link AutoEvaluationRunner}.
+ *
+ * <p>A trial runs when the {@value #autoProperty} system property names an auto. The robot is
+ * enabled in autonomous on the blue alliance and runs that auto instead of the chooser's. The sim
+ * pose is the robot's own estimate, so a trial keeps a separate true pose, which:
+ *
+ * <ul>
+ *   <li>starts off the auto's starting pose by a random error
+ *   <li>moves by the measured chassis velocity, scaled down by random wheel slip every loop
+ *   <li>is what the simulated cameras see, with random noise added, through {@link
+ *       #truePose(Supplier)}
+ * </ul>
+ *
+ * <p>When the auto finishes, or after 20 seconds (or {@value #timeoutProperty}), the completion
+ * time and the error between the true pose and the end of the auto's last path are written to the
+ * {@value #resultProperty} file, and the robot exits. The noise comes from a {@link Random} seeded
+ * with {@value #seedProperty}, and the sim clock should be {@link SimTiming stepped}, so a trial is
+ * repeatable.
+ */
+public final class AutoEvaluation {
+  public static final String autoProperty = "autoeval.auto";
+  public static final String seedProperty = "autoeval.seed";
+  public static final String resultProperty = "autoeval.result";
+  public static final String timeoutProperty = "autoeval.timeout";
+
+  /** Standard deviation of the starting position error, in meters */
+  private static final double startErrorMeters = 0.05;
+  /** Standard deviation of the starting heading error, in radians */
+  private static final double startErrorRadians = Math.toRadians(2);
+  /** Standard deviation of the fraction of wheel motion lost to slip each loop */
+  private static final double slipFraction = 0.03;
+  /** Standard deviation of the noise on the pose the cameras see, in meters */
+  private static final double visionNoiseMeters = 0.02;
+
+  private static final String auto = System.getProperty(autoProperty);
+  private static final Random random = new Random(Long.getLong(seedProperty, 0));
+  private static final double timeoutSeconds =
+      Double.parseDouble(System.getProperty(timeoutProperty, "20"));
+
+  private static Command command = null;
+  private static Pose2d plannedEnd = null;
+  private static Pose2d truePose = null;
+  private static double startTimestamp = 0;
+
+  private AutoEvaluation() {}
+
+  /**
+   * @return if this run is a trial
+   */
+  public static boolean isEnabled() {
+    return auto != null;
+  }
+
+  /** Enable the robot in autonomous. Call this once the robot is constructed. */
+  public static void start() {
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.setAutonomous(true);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+  }
+
+  /**
+   * Build the auto under trial, and start the trial. Call this in autonomousInit.
+   *
+   * @return the auto to schedule
+   */
+  public static Command getCommand() {
+    PathPlannerAuto pathPlannerAuto = new PathPlannerAuto(auto);
+    try {
+      List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(auto);
+      if (!paths.isEmpty()) {
+        PathPlannerPath last = paths.get(paths.size() - 1);
+        List<Pose2d> poses = last.getPathPoses();
+        plannedEnd =
+            new Pose2d(
+                poses.get(poses.size() - 1).getTranslation(), last.getGoalEndState().rotation());
+      }
+    } catch (Exception e) {
+      System.err.println("Failed to read the paths of " + auto + ": " + e.getMessage());
+    }
+
+    Pose2d start = pathPlannerAuto.getStartingPose();
+    if (start == null) {
+      // The auto doesn't reset odometry, so it starts wherever the robot is
+      start = RobotState.getInstance().getSnapshot().pose();
+    }
+    truePose =
+        start.exp(
+            new Twist2d(
+                random.nextGaussian() * startErrorMeters,
+                random.nextGaussian() * startErrorMeters,
+                random.nextGaussian() * startErrorRadians));
+    startTimestamp = Timer.getTimestamp();
+    command = pathPlannerAuto;
+    return command;
+  }
+
+  /**
+   * The pose the simulated cameras should see.
+   *
+   * @param estimate the robot's pose estimate
+   * @return the true pose with camera noise during a trial, and the estimate otherwise
+   */
+  public static Supplier<Pose2d> truePose(Supplier<Pose2d> estimate) {
+    if (!isEnabled()) {
+      return estimate;
+    }
+    return () ->
+        truePose == null
+            ? estimate.get()
+            : truePose.exp(
+                new Twist2d(
+                    random.nextGaussian() * visionNoiseMeters,
+                    random.nextGaussian() * visionNoiseMeters,
+                    0));
+  }
+
+  /** Move the true pose, and finish the trial when the auto is done. Call this every loop. */
+  public static void periodic() {
+    if (command == null) {
+      return;
+    }
+    ChassisSpeeds speeds = RobotState.getInstance().getSnapshot().robotRelativeVelocity();
+    double traction = 1 - Math.abs(random.nextGaussian() * slipFraction);
+    double dt = SimTiming.loopPeriodSecs * traction;
+    truePose =
+        truePose.exp(
+            new Twist2d(
+                speeds.vxMetersPerSecond * dt,
+                speeds.vyMetersPerSecond * dt,
+                speeds.omegaRadiansPerSecond * dt));
+
+    double elapsed = Timer.getTimestamp() - startTimestamp;
+    boolean completed = !command.isScheduled();
+    if (completed || elapsed > timeoutSeconds) {
+      writeResult(completed, elapsed);
+      System.exit(0);
+    }
+  }
+
+  private static void writeResult(boolean completed, double elapsed) {
+    Pose2d estimate = RobotState.getInstance().getSnapshot().pose();
+    Properties result = new Properties();
+    result.setProperty("Completed", Boolean.toString(completed));
+    result.setProperty("TimeS", format(elapsed));
+    result.setProperty(
+        "EstimateErrorM",
+        format(estimate.getTranslation().getDistance(truePose.getTranslation())));
+    if (plannedEnd != null) {
+      result.setProperty(
+          "FinalErrorM",
+          format(plannedEnd.getTranslation().getDistance(truePose.getTranslation())));
+      result.setProperty(
+          "FinalHeadingErrorDeg",
+          format(Math.abs(plannedEnd.getRotation().minus(truePose.getRotation()).getDegrees())));
+    }
+
+    String path = System.getProperty(resultProperty);
+    if (path == null) {
+      result.list(System.out);
+      return;
+    }
+    try (OutputStream out = Files.newOutputStream(Path.of(path))) {
+      result.store(out, auto);
+    } catch (IOException e) {
+      System.err.println("Failed to write auto result: " + e.getMessage());
+    }
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+}
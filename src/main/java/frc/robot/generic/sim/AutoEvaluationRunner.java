@@ -0,0 +1,193 @@
+package frc.robot.generic.sim;
+
+import frc.robot.generic.Main;
+import frc.robot.generic.util.SimTiming;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Runs many randomized trials of every PathPlanner auto, in parallel, and writes a CSV report of
+ * how long they take and how close they end to where they should.
+ *
+ * <p>Each trial is an {@link AutoEvaluation} of one auto with one seed, run by the robot code in
+ * its own JVM with the sim clock stepped as fast as possible. The output of each trial is kept in
+ * {@code build/autoeval}.
+ *
+ * <p>Run with {@code ./gradlew autoEval -PautoEvalArgs="[seeds] [jobs] [report] [autos...]"}. By
+ * default, 20 seeds of every auto in {@code src/main/deploy/pathplanner/autos} are run on half of
+ * the processors, and the report is written to {@code build/autoeval/auto_report.csv}.
+ */
+public final class AutoEvaluationRunner {
+  private static final Path autosFolder = Path.of("src", "main", "deploy", "pathplanner", "autos");
+  private static final Path outputFolder = Path.of("build", "autoeval");
+  private static final long timeoutMinutes = 5;
+
+  private record Trial(String auto, long seed, int exitCode, Properties result) {}
+
+  private AutoEvaluationRunner() {}
+
+  public static void main(String... args) throws Exception {
+    int seeds = args.length > 0 && !args[0].isEmpty() ? Integer.parseInt(args[0]) : 20;
+    int jobs =
+        args.length > 1
+            ? Integer.parseInt(args[1])
+            : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    Path report = args.length > 2 ? Path.of(args[2]) : outputFolder.resolve("auto_report.csv");
+
+    List<String> autos;
+    if (args.length > 3) {
+      autos = Arrays.asList(args).subList(3, args.length);
+    } else {
+      try (Stream<Path> files = Files.list(autosFolder)) {
+        autos =
+            files
+                .map(file -> file.getFileName().toString())
+                .filter(name -> name.endsWith(".auto"))
+                .map(name -> name.substring(0, name.length() - ".auto".length()))
+                .sorted()
+                .toList();
+      }
+    }
+    Files.createDirectories(outputFolder);
+    System.out.println(
+        "Running " + seeds + " trials of " + autos.size() + " autos with " + jobs + " jobs");
+
+    ExecutorService pool = Executors.newFixedThreadPool(jobs);
+    Map<String, List<Future<Trial>>> futures = new LinkedHashMap<>();
+    for (String auto : autos) {
+      List<Future<Trial>> trials = new ArrayList<>();
+      for (long seed = 0; seed < seeds; seed++) {
+        long trialSeed = seed;
+        trials.add(pool.submit(() -> run(auto, trialSeed)));
+      }
+      futures.put(auto, trials);
+    }
+    pool.shutdown();
+
+    int failures = 0;
+    try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+      out.println(
+          "Auto,Trials,Completed,TimeMeanS,TimeP50S,TimeP90S,TimeMaxS,FinalErrorMeanM,"
+              + "FinalErrorP90M,FinalErrorMaxM,FinalHeadingErrorMeanDeg,EstimateErrorMeanM");
+      for (Map.Entry<String, List<Future<Trial>>> entry : futures.entrySet()) {
+        List<Double> times = new ArrayList<>();
+        List<Double> finalErrors = new ArrayList<>();
+        List<Double> headingErrors = new ArrayList<>();
+        List<Double> estimateErrors = new ArrayList<>();
+        int completed = 0;
+        for (Future<Trial> future : entry.getValue()) {
+          Trial trial = future.get();
+          if (trial.exitCode() != 0) {
+            failures++;
+            System.out.println(
+                "Trial " + trial.seed() + " of " + trial.auto() + " failed, see its output");
+            continue;
+          }
+          if (Boolean.parseBoolean(trial.result().getProperty("Completed"))) {
+            completed++;
+            times.add(value(trial, "TimeS"));
+          }
+          finalErrors.add(value(trial, "FinalErrorM"));
+          headingErrors.add(value(trial, "FinalHeadingErrorDeg"));
+          estimateErrors.add(value(trial, "EstimateErrorM"));
+        }
+        out.println(
+            String.join(
+                ",",
+                entry.getKey(),
+                Integer.toString(entry.getValue().size()),
+                Integer.toString(completed),
+                format(mean(times)),
+                format(percentile(times, 0.5)),
+                format(percentile(times, 0.9)),
+                format(percentile(times, 1)),
+                format(mean(finalErrors)),
+                format(percentile(finalErrors, 0.9)),
+                format(percentile(finalErrors, 1)),
+                format(mean(headingErrors)),
+                format(mean(estimateErrors))));
+        System.out.println(
+            String.format(
+                Locale.ROOT,
+                "%s: %d/%d completed, %.2f s p50, %.2f s p90, %.3f m mean final error",
+                entry.getKey(),
+                completed,
+                entry.getValue().size(),
+                percentile(times, 0.5),
+                percentile(times, 0.9),
+                mean(finalErrors)));
+      }
+    }
+    System.out.println("Wrote " + report + ", " + failures + " trials failed");
+    System.exit(failures == 0 ? 0 : 1);
+  }
+
+  private static Trial run(String auto, long seed) throws IOException, InterruptedException {
+    Path resultFile = Files.createTempFile("auto_result", ".properties");
+    ProcessBuilder builder =
+        new ProcessBuilder(
+            Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+            "-cp",
+            System.getProperty("java.class.path"),
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            "-D" + SimTiming.speedProperty + "=max",
+            "-D" + AutoEvaluation.autoProperty + "=" + auto,
+            "-D" + AutoEvaluation.seedProperty + "=" + seed,
+            "-D" + AutoEvaluation.resultProperty + "=" + resultFile,
+            Main.class.getName());
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(outputFolder.resolve(auto + "_" + seed + ".txt").toFile());
+
+    Process process = builder.start();
+    int exitCode;
+    if (process.waitFor(timeoutMinutes, TimeUnit.MINUTES)) {
+      exitCode = process.exitValue();
+    } else {
+      process.destroyForcibly();
+      exitCode = -1;
+    }
+
+    Properties result = new Properties();
+    try (InputStream in = Files.newInputStream(resultFile)) {
+      result.load(in);
+    } finally {
+      Files.deleteIfExists(resultFile);
+    }
+    return new Trial(auto, seed, exitCode, result);
+  }
+
+  private static double value(Trial trial, String key) {
+    return Double.parseDouble(trial.result().getProperty(key, "NaN"));
+  }
+
+  private static double mean(List<Double> values) {
+    return values.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+  }
+
+  private static double percentile(List<Double> values, double percentile) {
+    if (values.isEmpty()) {
+      return Double.NaN;
+    }
+    double[] sorted = values.stream().mapToDouble(Double::doubleValue).sorted().toArray();
+    return sorted[Math.max(0, (int) Math.ceil(sorted.length * percentile) - 1)];
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.4f", value);
+  }
+}
@@ -39,6 +39,7 @@ import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
@@ -47,6 +48,7 @@ import frc.robot.Constants;
 import frc.robot.Constants.Mode;
 import frc.robot.generic.RobotState;
 import frc.robot.generic.util.LocalADStarAK;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import org.littletonrobotics.junction.AutoLogOutput;
@@ -58,6 +60,7 @@ public class Drive extends SubsystemBase {
   private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
   private final Module[] modules = new Module[4]; // FL, FR, BL, BR
   private final SysIdRoutine sysId;
+  private final int periodicSlot = LoopProfiler.register("Drive/Periodic");
   private final Alert gyroDisconnectedAlert =
       new Alert("Disconnected gyro, using kinematics as fallback.", AlertType.kError);
 
@@ -129,6 +132,7 @@ public class Drive extends SubsystemBase {
 
   @Override
   public void periodic() {
+    long start = LoopProfiler.start();
     odometryLock.lock(); // Prevents odometry updates while reading data
     gyroIO.updateInputs(gyroInputs);
     Logger.processInputs("Drive/Gyro", gyroInputs);
@@ -186,8 +190,12 @@ public class Drive extends SubsystemBase {
     gyroDisconnectedAlert.set(!gyroInputs.connected && Constants.currentMode != Mode.SIM);
 
     Logger.recordOutput("Odometry/Robot", getPose());
-    RobotState.getInstance().setRobotPosition(getPose());
-    RobotState.getInstance().setRobotRelativeVelocity(getChassisSpeeds());
+    RobotState.getInstance()
+        .update(
+            sampleCount > 0 ? sampleTimestamps[sampleCount - 1] : Timer.getTimestamp(),
+            getPose(),
+            getChassisSpeeds());
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   /**
@@ -18,19 +18,26 @@ import static frc.robot.generic.subsystems.drive.DriveConstants.*;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.system.plant.LinearSystemId;
 import edu.wpi.first.wpilibj.Timer;
-import edu.wpi.first.wpilibj.simulation.DCMotorSim;
-
-/** Physics sim implementation of module IO. */
+import frc.robot.generic.util.SimTiming;
+import frc.robot.generic.util.SubsteppedMotorSim;
+
+/**
+ * Physics sim implementation of module IO.
+ *
+ * <p>The controllers and physics run {@link SimTiming#substeps()} times per loop, like the motor
+ * controllers do on the real robot, with one odometry sample per substep.
+ */
 public class ModuleIOSim implements ModuleIO {
-  private final DCMotorSim driveSim;
-  private final DCMotorSim turnSim;
+  private final SubsteppedMotorSim driveSim;
+  private final SubsteppedMotorSim turnSim;
 
   private boolean driveClosedLoop = false;
   private boolean turnClosedLoop = false;
-  private PIDController driveController = new PIDController(driveSimP, 0, driveSimD);
-  private PIDController turnController = new PIDController(turnSimP, 0, turnSimD);
+  private PIDController driveController =
+      new PIDController(driveSimP, 0, driveSimD, SimTiming.substepSeconds());
+  private PIDController turnController =
+      new PIDController(turnSimP, 0, turnSimD, SimTiming.substepSeconds());
   private double driveFFVolts = 0.0;
   private double driveAppliedVolts = 0.0;
   private double turnAppliedVolts = 0.0;
@@ -38,13 +45,10 @@ public class ModuleIOSim implements ModuleIO {
   public ModuleIOSim() {
     // Create drive and turn sim models
     driveSim =
-        new DCMotorSim(
-            LinearSystemId.createDCMotorSystem(driveGearbox, 0.025, driveMotorReduction),
-            driveGearbox);
+        new SubsteppedMotorSim(
+            driveGearbox, 0.025, driveMotorReduction, SimTiming.substepSeconds());
     turnSim =
-        new DCMotorSim(
-            LinearSystemId.createDCMotorSystem(turnGearbox, 0.004, turnMotorReduction),
-            turnGearbox);
+        new SubsteppedMotorSim(turnGearbox, 0.004, turnMotorReduction, SimTiming.substepSeconds());
 
     // Enable wrapping for turn PID
     turnController.enableContinuousInput(-Math.PI, Math.PI);
@@ -52,25 +56,37 @@ public class ModuleIOSim implements ModuleIO {
 
   @Override
   public void updateInputs(ModuleIOInputs inputs) {
-    // Run closed-loop control
-    if (driveClosedLoop) {
-      driveAppliedVolts =
-          driveFFVolts + driveController.calculate(driveSim.getAngularVelocityRadPerSec());
-    } else {
-      driveController.reset();
-    }
-    if (turnClosedLoop) {
-      turnAppliedVolts = turnController.calculate(turnSim.getAngularPositionRad());
-    } else {
-      turnController.reset();
+    int substeps = SimTiming.substeps();
+    double[] odometryTimestamps = new double[substeps];
+    double[] odometryDrivePositionsRad = new double[substeps];
+    Rotation2d[] odometryTurnPositions = new Rotation2d[substeps];
+    double loopStart = Timer.getFPGATimestamp() - SimTiming.loopPeriodSecs;
+
+    for (int i = 0; i < substeps; i++) {
+      // Run closed-loop control
+      if (driveClosedLoop) {
+        driveAppliedVolts =
+            driveFFVolts + driveController.calculate(driveSim.getAngularVelocityRadPerSec());
+      } else {
+        driveController.reset();
+      }
+      if (turnClosedLoop) {
+        turnAppliedVolts = turnController.calculate(turnSim.getAngularPositionRad());
+      } else {
+        turnController.reset();
+      }
+
+      // Update simulation state
+      driveSim.setInputVoltage(MathUtil.clamp(driveAppliedVolts, -12.0, 12.0));
+      turnSim.setInputVoltage(MathUtil.clamp(turnAppliedVolts, -12.0, 12.0));
+      driveSim.step();
+      turnSim.step();
+
+      odometryTimestamps[i] = loopStart + (i + 1) * SimTiming.substepSeconds();
+      odometryDrivePositionsRad[i] = driveSim.getAngularPositionRad();
+      odometryTurnPositions[i] = new Rotation2d(turnSim.getAngularPositionRad());
     }
 
-    // Update simulation state
-    driveSim.setInputVoltage(MathUtil.clamp(driveAppliedVolts, -12.0, 12.0));
-    turnSim.setInputVoltage(MathUtil.clamp(turnAppliedVolts, -12.0, 12.0));
-    driveSim.update(0.02);
-    turnSim.update(0.02);
-
     // Update drive inputs
     inputs.driveConnected = true;
     inputs.drivePositionRad = driveSim.getAngularPositionRad();
@@ -80,7 +96,7 @@ public class ModuleIOSim implements ModuleIO {
 
     // Update turn inputs
     inputs.turnConnected = true;
-    inputs.turnPosition = new Rotation2d(turnSim.getAngularPositionRad());
+    inputs.turnPosition = odometryTurnPositions[substeps - 1];
     inputs.turnVelocityRadPerSec = turnSim.getAngularVelocityRadPerSec();
     inputs.turnAppliedVolts = turnAppliedVolts;
     inputs.turnCurrentAmps = Math.abs(turnSim.getCurrentDrawAmps());
@@ -88,10 +104,10 @@ public class ModuleIOSim implements ModuleIO {
     // Sim always "connected" for cancoder
     inputs.cancoderConnected = true;
 
-    // Update odometry inputs (50Hz because high-frequency odometry in sim doesn't matter)
-    inputs.odometryTimestamps = new double[] {Timer.getFPGATimestamp()};
-    inputs.odometryDrivePositionsRad = new double[] {inputs.drivePositionRad};
-    inputs.odometryTurnPositions = new Rotation2d[] {inputs.turnPosition};
+    // Update odometry inputs
+    inputs.odometryTimestamps = odometryTimestamps;
+    inputs.odometryDrivePositionsRad = odometryDrivePositionsRad;
+    inputs.odometryTurnPositions = odometryTurnPositions;
   }
 
   @Override
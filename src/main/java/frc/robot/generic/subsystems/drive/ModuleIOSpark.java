@@ -37,6 +37,8 @@ import com.revrobotics.spark.config.SparkMaxConfig;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.filter.Debouncer;
 import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.generic.util.LogKeys;
+import frc.robot.generic.util.LogTier;
 import java.util.Queue;
 import java.util.function.DoubleSupplier;
 import org.littletonrobotics.junction.Logger;
@@ -77,9 +79,14 @@ public class ModuleIOSpark implements ModuleIO {
   private boolean lastCancoderConnected = false;
 
   private final int module;
+  private final String turnSetpointKey;
+  private final String encoderPositionKey;
 
   public ModuleIOSpark(int module) {
     this.module = module;
+    LogKeys keys = LogKeys.of("Drive/Module").indexed(module);
+    turnSetpointKey = keys.key("turn setpoint");
+    encoderPositionKey = keys.key("EncoderPosition");
     zeroRotation =
         switch (module) {
           case 0 -> frontLeftZeroRotation;
@@ -290,7 +297,9 @@ public class ModuleIOSpark implements ModuleIO {
     double setpoint =
         MathUtil.inputModulus(
             rotation.plus(zeroRotation).getRadians(), turnPIDMinInput, turnPIDMaxInput);
-    Logger.recordOutput("Drive/Module" + module + "/turn setpoint", setpoint);
+    if (LogTier.DEBUG.isEnabled()) {
+      Logger.recordOutput(turnSetpointKey, setpoint);
+    }
     turnController.setSetpoint(setpoint, ControlType.kPosition);
   }
 
@@ -307,7 +316,7 @@ public class ModuleIOSpark implements ModuleIO {
       double adjustedRadians =
           -new Rotation2d(posSignal.getValue()).plus(zeroRotation).getRadians();
 
-      Logger.recordOutput("Drive/Module" + module + "/EncoderPosition", adjustedRadians);
+      Logger.recordOutput(encoderPositionKey, adjustedRadians);
 
       // Safely set the Spark MAX relative encoder
       tryUntilOk(
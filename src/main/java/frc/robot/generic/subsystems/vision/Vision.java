@@ -19,7 +19,12 @@ import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.Alert.AlertType;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.generic.RobotState;
+import frc.robot.generic.replay.ReplaySummary;
 import frc.robot.generic.subsystems.vision.VisionIO.PoseObservationType;
+import frc.robot.generic.util.LogKeys;
+import frc.robot.generic.util.LogTier;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.LinkedList;
 import java.util.List;
 import org.littletonrobotics.junction.Logger;
@@ -28,7 +33,27 @@ public class Vision extends SubsystemBase {
   private final VisionConsumer consumer;
   private final VisionIO[] io;
   private final VisionIOInputsAutoLogged[] inputs;
+  private final int periodicSlot = LoopProfiler.register("Vision/Periodic");
   private final Alert[] disconnectedAlerts;
+  private final CameraKeys[] cameraKeys;
+  private final double[] poseScratch = new double[3];
+
+  private record CameraKeys(
+      String inputs,
+      String tagPoses,
+      String robotPoses,
+      String robotPosesAccepted,
+      String robotPosesRejected) {
+    static CameraKeys of(int index) {
+      LogKeys keys = LogKeys.of("Vision/Camera").indexed(index);
+      return new CameraKeys(
+          keys.prefix(),
+          keys.key("TagPoses"),
+          keys.key("RobotPoses"),
+          keys.key("RobotPosesAccepted"),
+          keys.key("RobotPosesRejected"));
+    }
+  }
 
   public Vision(VisionConsumer consumer, VisionIO... io) {
     this.consumer = consumer;
@@ -40,6 +65,12 @@ public class Vision extends SubsystemBase {
       inputs[i] = new VisionIOInputsAutoLogged();
     }
 
+    // Initialize log keys
+    this.cameraKeys = new CameraKeys[io.length];
+    for (int i = 0; i < io.length; i++) {
+      cameraKeys[i] = CameraKeys.of(i);
+    }
+
     // Initialize disconnected alerts
     this.disconnectedAlerts = new Alert[io.length];
     for (int i = 0; i < inputs.length; i++) {
@@ -60,11 +91,17 @@ public class Vision extends SubsystemBase {
 
   @Override
   public void periodic() {
+    long start = LoopProfiler.start();
     for (int i = 0; i < io.length; i++) {
       io[i].updateInputs(inputs[i]);
-      Logger.processInputs("Vision/Camera" + Integer.toString(i), inputs[i]);
+      Logger.processInputs(cameraKeys[i].inputs(), inputs[i]);
     }
 
+    // Tag and per-camera poses are only drawn while the visualization tier is on, which is off on
+    // the field and while the loop is overrunning. The accepted and rejected summaries are always
+    // logged
+    boolean detailed = LogTier.VISUALIZATION.isEnabled();
+
     // Initialize logging values
     List<Pose3d> allTagPoses = new LinkedList<>();
     List<Pose3d> allRobotPoses = new LinkedList<>();
@@ -83,10 +120,12 @@ public class Vision extends SubsystemBase {
       List<Pose3d> robotPosesRejected = new LinkedList<>();
 
       // Add tag poses
-      for (int tagId : inputs[cameraIndex].tagIds) {
-        var tagPose = aprilTagLayout.getTagPose(tagId);
-        if (tagPose.isPresent()) {
-          tagPoses.add(tagPose.get());
+      if (detailed) {
+        for (int tagId : inputs[cameraIndex].tagIds) {
+          var tagPose = aprilTagLayout.getTagPose(tagId);
+          if (tagPose.isPresent()) {
+            tagPoses.add(tagPose.get());
+          }
         }
       }
 
@@ -107,7 +146,9 @@ public class Vision extends SubsystemBase {
                 || observation.pose().getY() > aprilTagLayout.getFieldWidth();
 
         // Add pose to log
-        robotPoses.add(observation.pose());
+        if (detailed) {
+          robotPoses.add(observation.pose());
+        }
         if (rejectPose) {
           robotPosesRejected.add(observation.pose());
         } else {
@@ -133,6 +174,14 @@ public class Vision extends SubsystemBase {
           angularStdDev *= cameraStdDevFactors[cameraIndex];
         }
 
+        if (ReplaySummary.isHeadless()
+            && RobotState.getInstance().getPoseAt(observation.timestamp(), poseScratch)) {
+          ReplaySummary.recordVisionResidual(
+              Math.hypot(
+                  observation.pose().getX() - poseScratch[0],
+                  observation.pose().getY() - poseScratch[1]));
+        }
+
         // Send vision observation
         consumer.accept(
             observation.pose().toPose2d(),
@@ -141,18 +190,13 @@ public class Vision extends SubsystemBase {
       }
 
       // Log camera metadata
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/TagPoses",
-          tagPoses.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPoses",
-          robotPoses.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPosesAccepted",
-          robotPosesAccepted.toArray(new Pose3d[0]));
-      Logger.recordOutput(
-          "Vision/Camera" + Integer.toString(cameraIndex) + "/RobotPosesRejected",
-          robotPosesRejected.toArray(new Pose3d[0]));
+      if (detailed) {
+        CameraKeys keys = cameraKeys[cameraIndex];
+        Logger.recordOutput(keys.tagPoses(), tagPoses.toArray(new Pose3d[0]));
+        Logger.recordOutput(keys.robotPoses(), robotPoses.toArray(new Pose3d[0]));
+        Logger.recordOutput(keys.robotPosesAccepted(), robotPosesAccepted.toArray(new Pose3d[0]));
+        Logger.recordOutput(keys.robotPosesRejected(), robotPosesRejected.toArray(new Pose3d[0]));
+      }
       allTagPoses.addAll(tagPoses);
       allRobotPoses.addAll(robotPoses);
       allRobotPosesAccepted.addAll(robotPosesAccepted);
@@ -160,12 +204,15 @@ public class Vision extends SubsystemBase {
     }
 
     // Log summary data
-    Logger.recordOutput("Vision/Summary/TagPoses", allTagPoses.toArray(new Pose3d[0]));
-    Logger.recordOutput("Vision/Summary/RobotPoses", allRobotPoses.toArray(new Pose3d[0]));
+    if (detailed) {
+      Logger.recordOutput("Vision/Summary/TagPoses", allTagPoses.toArray(new Pose3d[0]));
+      Logger.recordOutput("Vision/Summary/RobotPoses", allRobotPoses.toArray(new Pose3d[0]));
+    }
     Logger.recordOutput(
         "Vision/Summary/RobotPosesAccepted", allRobotPosesAccepted.toArray(new Pose3d[0]));
     Logger.recordOutput(
         "Vision/Summary/RobotPosesRejected", allRobotPosesRejected.toArray(new Pose3d[0]));
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   @FunctionalInterface
@@ -0,0 +1,151 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.math.util.Units;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Streaming estimate of the offset between an absolute sensor and a relative one on the same
+ * mechanism, such as a potentiometer and a motor encoder.
+ *
+ * <p>The offset ({@code absolute - relative}) is modeled as a slow random walk and filtered with a
+ * scalar Kalman filter, so a noisy absolute sensor can be used to keep a precise relative sensor
+ * correct. Samples are only used while the mechanism is slow, since filtered absolute sensors lag.
+ * A persistent jump in the offset that the filter can't explain is reported as slip, and the
+ * estimate is reseeded from the new offset.
+ *
+ * <p>Angles are in radians. This does not allocate.
+ */
+public class AbsoluteOffsetEstimator {
+  private final String offsetKey;
+  private final String measuredOffsetKey;
+  private final String stdDevKey;
+  private final String sampleUsedKey;
+  private final String convergedKey;
+  private final String slipKey;
+
+  private final LoggedTunableNumber processNoise;
+  private final LoggedTunableNumber measurementNoise;
+  private final LoggedTunableNumber maxVelocity;
+  private final LoggedTunableNumber slipThreshold;
+  private final LoggedTunableNumber slipSamples;
+  private final LoggedTunableNumber convergedStdDev;
+
+  private double offset = 0;
+  private double variance = Double.POSITIVE_INFINITY;
+  private int outlierCount = 0;
+  private boolean slipDetected = false;
+
+  /**
+   * @param key the key to put tunables and logs under
+   */
+  public AbsoluteOffsetEstimator(String key) {
+    LogKeys keys = LogKeys.of(key);
+    offsetKey = keys.key("Offset");
+    measuredOffsetKey = keys.key("MeasuredOffset");
+    stdDevKey = keys.key("StdDev");
+    sampleUsedKey = keys.key("SampleUsed");
+    convergedKey = keys.key("Converged");
+    slipKey = keys.key("Slip");
+    processNoise = new LoggedTunableNumber(key + "/ProcessNoise", 0.5, "deg/sqrt(s)");
+    measurementNoise = new LoggedTunableNumber(key + "/MeasurementNoise", 1.0, "deg");
+    maxVelocity = new LoggedTunableNumber(key + "/MaxVelocity", 30, "deg/s");
+    slipThreshold = new LoggedTunableNumber(key + "/SlipThreshold", 5, "deg");
+    slipSamples = new LoggedTunableNumber(key + "/SlipSamples", 10);
+    convergedStdDev = new LoggedTunableNumber(key + "/ConvergedStdDev", 0.5, "deg");
+  }
+
+  /**
+   * Add a sample.
+   *
+   * @param absolute the absolute sensor reading
+   * @param relative the relative sensor reading at the same time
+   * @param velocity the mechanism velocity, per second
+   * @param dtSeconds time since the last call
+   */
+  public void update(double absolute, double relative, double velocity, double dtSeconds) {
+    slipDetected = false;
+    double processStdDev = Units.degreesToRadians(processNoise.get());
+    variance += processStdDev * processStdDev * dtSeconds;
+
+    double measured = absolute - relative;
+    boolean used = Math.abs(velocity) <= Units.degreesToRadians(maxVelocity.get());
+    if (used) {
+      if (Double.isInfinite(variance)) {
+        seed(measured);
+      } else {
+        double innovation = measured - offset;
+        double measurementStdDev = Units.degreesToRadians(measurementNoise.get());
+        double innovationVariance = variance + measurementStdDev * measurementStdDev;
+        // Gate on both the statistical and the absolute size of the innovation, so a converged
+        // filter can't reject small real changes
+        boolean outlier =
+            Math.abs(innovation) > Units.degreesToRadians(slipThreshold.get())
+                && innovation * innovation > 9 * innovationVariance;
+        if (outlier) {
+          if (++outlierCount >= slipSamples.get()) {
+            slipDetected = true;
+            seed(measured);
+          }
+        } else {
+          outlierCount = 0;
+          double gain = variance / innovationVariance;
+          offset += gain * innovation;
+          variance *= 1 - gain;
+        }
+      }
+    }
+
+    Logger.recordOutput(offsetKey, Units.radiansToDegrees(offset), "deg");
+    Logger.recordOutput(measuredOffsetKey, Units.radiansToDegrees(measured), "deg");
+    Logger.recordOutput(stdDevKey, Units.radiansToDegrees(Math.sqrt(variance)), "deg");
+    Logger.recordOutput(sampleUsedKey, used);
+    Logger.recordOutput(convergedKey, isConverged());
+    Logger.recordOutput(slipKey, slipDetected);
+  }
+
+  private void seed(double measured) {
+    double measurementStdDev = Units.degreesToRadians(measurementNoise.get());
+    offset = measured;
+    variance = measurementStdDev * measurementStdDev;
+    outlierCount = 0;
+  }
+
+  /**
+   * @return the estimated {@code absolute - relative} offset
+   */
+  public double getOffset() {
+    return offset;
+  }
+
+  /**
+   * @return if the estimate is confident enough to correct the relative sensor with
+   */
+  public boolean isConverged() {
+    return Math.sqrt(variance) <= Units.degreesToRadians(convergedStdDev.get());
+  }
+
+  /**
+   * @return if slip was detected on the last update
+   */
+  public boolean isSlipDetected() {
+    return slipDetected;
+  }
+
+  /**
+   * Tell the estimator the relative sensor was moved by {@code amount}, for example after resetting
+   * it to the absolute position, so the estimate stays consistent.
+   *
+   * @param amount the amount added to the relative sensor
+   */
+  public void shift(double amount) {
+    offset -= amount;
+  }
+
+  /** Forget the estimate. The next usable sample seeds it again. */
+  public void reset() {
+    offset = 0;
+    variance = Double.POSITIVE_INFINITY;
+    outlierCount = 0;
+    slipDetected = false;
+  }
+}
@@ -0,0 +1,558 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import org.littletonrobotics.junction.LogDataReceiver;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Writes a WPILOG file from a bounded buffer, so a slow USB stick can't back up logging.
+ *
+ * <p>Each log cycle is encoded into a preallocated direct ring buffer, and a dedicated thread
+ * drains the ring to the file in batches. Like the AdvantageKit writer, only changed values are
+ * written.
+ *
+ * <p>When the ring is more than {@link #shedFraction} full, outputs are shed and only the timestamp
+ * and inputs are written, since outputs can be regenerated by replay. Shed cycles set {@value
+ * #shedMarkerKey}, which is cleared on the next full cycle, so tools comparing outputs can skip
+ * them. If even the inputs don't fit, the whole cycle is dropped. Nothing ever waits for the file.
+ *
+ * <p>Like the AdvantageKit writer, the file starts with a random name, and is renamed to the date
+ * once the driver station is attached and the system time is valid, then to the event and match
+ * once they are known. Renames happen on the writer thread.
+ *
+ * <p>Call {@link #recordTelemetry()} from the robot loop to log the queue depth, throughput, flush
+ * latency and drop counts under {@code LogWriter}.
+ */
+public class BufferedLogWriter implements LogDataReceiver {
+  private static final int ringCapacity = 4 * 1024 * 1024;
+  private static final double shedFraction = 0.5;
+  private static final long idleNanos = 5_000_000;
+  private static final long syncPeriodNanos = 1_000_000_000;
+
+  private static final String timestampKey = "/Timestamp";
+  /** Boolean entry that is true while the outputs of the cycle were shed */
+  public static final String shedMarkerKey = "/LogWriter/OutputsShed";
+  private static final String extraHeader = "AdvantageKit";
+  private static final String entryMetadata = "{\"source\":\"AdvantageKit\"}";
+  private static final String unitMetadata = "{\"source\":\"AdvantageKit\",\"unit\":\"%s\"}";
+  private static final DateTimeFormatter timeFormatter =
+      DateTimeFormatter.ofPattern("yy-MM-dd_HH-mm-ss");
+
+  private final Path folder;
+  private final ByteBuffer ring =
+      ByteBuffer.allocateDirect(ringCapacity).order(ByteOrder.LITTLE_ENDIAN);
+  private final Alert failedAlert = new Alert("Log writer failed", Alert.AlertType.kError);
+
+  /* Owned by the receiver thread */
+  private ByteBuffer cycle = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+  private ByteBuffer payload = ByteBuffer.allocate(4 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final ArrayList<Entry> pendingEntries = new ArrayList<>();
+  private final ArrayList<LogValue> pendingValues = new ArrayList<>();
+  private Entry timestampEntry;
+  private Entry shedMarkerEntry;
+  private boolean shedMarked = false;
+  private int nextEntryId = 1;
+  private final String randomIdentifier =
+      String.format(Locale.ROOT, "%04x", ThreadLocalRandom.current().nextInt(0x10000));
+  private LocalDateTime logDate = null;
+  private String eventName = "";
+  private String matchText = null;
+
+  /* Shared between threads. Totals only grow, so depth is their difference */
+  private volatile long committedBytes = 0;
+  private volatile long flushedBytes = 0;
+  private volatile long maxFlushNanos = 0;
+  private volatile long droppedCycles = 0;
+  private volatile long shedEntries = 0;
+  private volatile boolean running = false;
+  private volatile boolean failed = false;
+  private volatile String requestedName;
+
+  private Thread writerThread;
+  private FileChannel channel;
+
+  /* Owned by the writer thread */
+  private String fileName;
+  private String failedName;
+
+  /* Owned by the robot thread, for telemetry */
+  private long lastTelemetryFlushed = 0;
+  private long lastTelemetryNanos = 0;
+
+  private static class Entry {
+    final int id;
+    final String key;
+    final boolean optional;
+    boolean started = false;
+    LogValue last = null;
+
+    Entry(int id, String key) {
+      this.id = id;
+      this.key = key;
+      String stripped = key.startsWith("/") ? key.substring(1) : key;
+      optional = stripped.startsWith("RealOutputs/") || stripped.startsWith("ReplayOutputs/");
+    }
+  }
+
+  /**
+   * @param folder the folder to write the log to, like {@code /U/logs}
+   */
+  public BufferedLogWriter(String folder) {
+    this.folder = Path.of(folder);
+  }
+
+  @Override
+  public void start() {
+    String name = "akit_" + randomIdentifier + ".wpilog";
+    fileName = name;
+    requestedName = name;
+    try {
+      Files.createDirectories(folder);
+      channel =
+          FileChannel.open(
+              folder.resolve(name), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      fail("Failed to open log file " + name + ": " + e.getMessage());
+      return;
+    }
+
+    timestampEntry = new Entry(nextEntryId++, timestampKey);
+    entries.put(timestampKey, timestampEntry);
+    shedMarkerEntry = new Entry(nextEntryId++, shedMarkerKey);
+    entries.put(shedMarkerKey, shedMarkerEntry);
+    cycle.clear();
+    byte[] header = extraHeader.getBytes(StandardCharsets.UTF_8);
+    ensure(12 + header.length);
+    cycle.put("WPILOG".getBytes(StandardCharsets.US_ASCII));
+    cycle.putShort((short) 0x0100);
+    cycle.putInt(header.length);
+    cycle.put(header);
+    commit(cycle.position());
+
+    running = true;
+    writerThread = new Thread(this::drain, "LogWriter");
+    writerThread.setDaemon(true);
+    writerThread.setPriority(Thread.MIN_PRIORITY);
+    writerThread.start();
+  }
+
+  @Override
+  public void end() {
+    running = false;
+    if (writerThread != null) {
+      LockSupport.unpark(writerThread);
+      try {
+        writerThread.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Override
+  public void putTable(LogTable table) {
+    if (failed || !running) {
+      return;
+    }
+    updateName(table);
+    long timestamp = table.getTimestamp();
+    Map<String, LogValue> values = table.getAll(false);
+    cycle.clear();
+    pendingEntries.clear();
+    pendingValues.clear();
+
+    // Essential records first, so the optional ones can be cut off the end
+    putData(timestampEntry, timestamp, null, timestamp);
+    for (Map.Entry<String, LogValue> field : values.entrySet()) {
+      Entry entry = getEntry(field.getKey());
+      if (!entry.optional) {
+        putIfChanged(entry, field.getValue(), timestamp);
+      }
+    }
+    int essentialBytes = cycle.position();
+    int essentialCount = pendingEntries.size();
+    for (Map.Entry<String, LogValue> field : values.entrySet()) {
+      Entry entry = getEntry(field.getKey());
+      if (entry.optional) {
+        putIfChanged(entry, field.getValue(), timestamp);
+      }
+    }
+
+    long depth = committedBytes - flushedBytes;
+    long free = ringCapacity - depth;
+    boolean shed = depth > ringCapacity * shedFraction || cycle.position() > free;
+    int count = pendingEntries.size();
+    if (shed) {
+      cycle.position(essentialBytes);
+      count = essentialCount;
+    }
+    // Marked on every shed cycle, and cleared once on the next full one
+    if (shed || shedMarked) {
+      putShedMarker(shed, timestamp);
+    }
+    if (cycle.position() > free) {
+      droppedCycles++;
+      return;
+    }
+
+    commit(cycle.position());
+    if (shed || shedMarked) {
+      shedMarkerEntry.started = true;
+      shedMarked = shed;
+    }
+    shedEntries += pendingEntries.size() - count;
+    // Only entries that made it into the ring count as written
+    for (int i = 0; i < count; i++) {
+      Entry entry = pendingEntries.get(i);
+      entry.started = true;
+      entry.last = pendingValues.get(i);
+    }
+  }
+
+  /** Log the writer telemetry. Call from the robot loop. */
+  public void recordTelemetry() {
+    long now = System.nanoTime();
+    long flushed = flushedBytes;
+    long committed = committedBytes;
+    if (lastTelemetryNanos != 0) {
+      Logger.recordOutput(
+          "LogWriter/BytesPerSecond",
+          (flushed - lastTelemetryFlushed) / ((now - lastTelemetryNanos) / 1e9));
+    }
+    lastTelemetryFlushed = flushed;
+    lastTelemetryNanos = now;
+    Logger.recordOutput("LogWriter/QueueDepthBytes", committed - flushed);
+    Logger.recordOutput("LogWriter/QueueFraction", (committed - flushed) / (double) ringCapacity);
+    Logger.recordOutput("LogWriter/MaxFlushLatencyMs", maxFlushNanos / 1e6);
+    maxFlushNanos = 0;
+    Logger.recordOutput("LogWriter/DroppedCycles", droppedCycles);
+    Logger.recordOutput("LogWriter/ShedEntries", shedEntries);
+    Logger.recordOutput("LogWriter/Failed", failed);
+  }
+
+  /** Request a rename when the date, event or match become known. Mirrors WPILOGWriter. */
+  private void updateName(LogTable table) {
+    boolean changed = false;
+    if (logDate == null
+        && table.get("DriverStation/DSAttached", false)
+        && RobotController.isSystemTimeValid()) {
+      logDate = LocalDateTime.now();
+      changed = true;
+    }
+    String event = table.get("DriverStation/EventName", "");
+    if (!event.equals(eventName)) {
+      eventName = event;
+      changed = true;
+    }
+    if (matchText == null) {
+      String matchType = null;
+      switch ((int) table.get("DriverStation/MatchType", 0)) {
+        case 1:
+          matchType = "p";
+          break;
+        case 2:
+          matchType = "q";
+          break;
+        case 3:
+          matchType = "e";
+          break;
+        default:
+          break;
+      }
+      if (matchType != null) {
+        matchText = matchType + (int) table.get("DriverStation/MatchNumber", 0);
+        changed = true;
+      }
+    }
+    if (!changed) {
+      return;
+    }
+
+    StringBuilder name = new StringBuilder("akit_");
+    name.append(logDate == null ? randomIdentifier : logDate.format(timeFormatter));
+    if (!eventName.isEmpty()) {
+      name.append('_').append(eventName.toLowerCase(Locale.ROOT));
+    }
+    if (matchText != null) {
+      name.append('_').append(matchText);
+    }
+    requestedName = name.append(".wpilog").toString();
+    LockSupport.unpark(writerThread);
+  }
+
+  private Entry getEntry(String key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      entry = new Entry(nextEntryId++, key);
+      entries.put(key, entry);
+    }
+    return entry;
+  }
+
+  private void putIfChanged(Entry entry, LogValue value, long timestamp) {
+    if (entry.started && value.equals(entry.last)) {
+      return;
+    }
+    putData(entry, 0, value, timestamp);
+  }
+
+  /**
+   * Encode a data record, preceded by a start record if the entry hasn't been written yet. The
+   * timestamp entry is written with {@code integer}, everything else from {@code value}.
+   */
+  private void putData(Entry entry, long integer, LogValue value, long timestamp) {
+    if (!entry.started) {
+      if (value == null) {
+        putStart(entry, "int64", null, timestamp);
+      } else {
+        putStart(entry, value.getWPILOGType(), value.unitStr, timestamp);
+      }
+    }
+    payload.clear();
+    if (value == null) {
+      ensurePayload(8);
+      payload.putLong(integer);
+    } else {
+      encodeValue(value);
+    }
+    putRecord(entry.id, timestamp);
+    pendingEntries.add(entry);
+    pendingValues.add(value);
+  }
+
+  private void putShedMarker(boolean shed, long timestamp) {
+    if (!shedMarkerEntry.started) {
+      putStart(shedMarkerEntry, "boolean", null, timestamp);
+    }
+    payload.clear();
+    ensurePayload(1);
+    payload.put((byte) (shed ? 1 : 0));
+    putRecord(shedMarkerEntry.id, timestamp);
+  }
+
+  private void putStart(Entry entry, String type, String unit, long timestamp) {
+    byte[] name = entry.key.getBytes(StandardCharsets.UTF_8);
+    byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+    byte[] metadata =
+        (unit == null ? entryMetadata : String.format(unitMetadata, unit))
+            .getBytes(StandardCharsets.UTF_8);
+    payload.clear();
+    ensurePayload(17 + name.length + typeBytes.length + metadata.length);
+    payload.put((byte) 0); // Start control record
+    payload.putInt(entry.id);
+    payload.putInt(name.length).put(name);
+    payload.putInt(typeBytes.length).put(typeBytes);
+    payload.putInt(metadata.length).put(metadata);
+    putRecord(0, timestamp);
+  }
+
+  private void encodeValue(LogValue value) {
+    switch (value.type) {
+      case Raw:
+        byte[] raw = value.getRaw();
+        ensurePayload(raw.length);
+        payload.put(raw);
+        break;
+      case Boolean:
+        ensurePayload(1);
+        payload.put((byte) (value.getBoolean() ? 1 : 0));
+        break;
+      case Integer:
+        ensurePayload(8);
+        payload.putLong(value.getInteger());
+        break;
+      case Float:
+        ensurePayload(4);
+        payload.putFloat(value.getFloat());
+        break;
+      case Double:
+        ensurePayload(8);
+        payload.putDouble(value.getDouble());
+        break;
+      case String:
+        byte[] string = value.getString().getBytes(StandardCharsets.UTF_8);
+        ensurePayload(string.length);
+        payload.put(string);
+        break;
+      case BooleanArray:
+        boolean[] booleans = value.getBooleanArray();
+        ensurePayload(booleans.length);
+        for (boolean element : booleans) {
+          payload.put((byte) (element ? 1 : 0));
+        }
+        break;
+      case IntegerArray:
+        long[] integers = value.getIntegerArray();
+        ensurePayload(integers.length * 8);
+        for (long element : integers) {
+          payload.putLong(element);
+        }
+        break;
+      case FloatArray:
+        float[] floats = value.getFloatArray();
+        ensurePayload(floats.length * 4);
+        for (float element : floats) {
+          payload.putFloat(element);
+        }
+        break;
+      case DoubleArray:
+        double[] doubles = value.getDoubleArray();
+        ensurePayload(doubles.length * 8);
+        for (double element : doubles) {
+          payload.putDouble(element);
+        }
+        break;
+      case StringArray:
+        String[] strings = value.getStringArray();
+        ensurePayload(4);
+        payload.putInt(strings.length);
+        for (String element : strings) {
+          byte[] bytes = element.getBytes(StandardCharsets.UTF_8);
+          ensurePayload(4 + bytes.length);
+          payload.putInt(bytes.length).put(bytes);
+        }
+        break;
+    }
+  }
+
+  /** Append a record with the contents of {@code payload} to the cycle. */
+  private void putRecord(int id, long timestamp) {
+    int size = payload.position();
+    int idLength = byteLength(id, 4);
+    int sizeLength = byteLength(size, 4);
+    int timestampLength = byteLength(timestamp, 8);
+    ensure(1 + idLength + sizeLength + timestampLength + size);
+    cycle.put((byte) ((idLength - 1) | (sizeLength - 1) << 2 | (timestampLength - 1) << 4));
+    putVariable(id, idLength);
+    putVariable(size, sizeLength);
+    putVariable(timestamp, timestampLength);
+    cycle.put(payload.array(), 0, size);
+  }
+
+  private static int byteLength(long value, int max) {
+    int length = 1;
+    while (length < max && (value >>> (8 * length)) != 0) {
+      length++;
+    }
+    return length;
+  }
+
+  private void putVariable(long value, int length) {
+    for (int i = 0; i < length; i++) {
+      cycle.put((byte) (value >>> (8 * i)));
+    }
+  }
+
+  private void ensure(int bytes) {
+    if (cycle.remaining() < bytes) {
+      cycle = grow(cycle, bytes);
+    }
+  }
+
+  private void ensurePayload(int bytes) {
+    if (payload.remaining() < bytes) {
+      payload = grow(payload, bytes);
+    }
+  }
+
+  private static ByteBuffer grow(ByteBuffer buffer, int bytes) {
+    int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+    ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    grown.put(buffer.array(), 0, buffer.position());
+    return grown;
+  }
+
+  /** Copy the first {@code bytes} of the cycle into the ring. The caller checks that it fits. */
+  private void commit(int bytes) {
+    long committed = committedBytes;
+    int position = (int) (committed % ringCapacity);
+    int first = Math.min(bytes, ringCapacity - position);
+    ring.put(position, cycle, 0, first);
+    if (first < bytes) {
+      ring.put(0, cycle, first, bytes - first);
+    }
+    committedBytes = committed + bytes;
+    LockSupport.unpark(writerThread);
+  }
+
+  /** The writer thread. Writes everything in the ring, then waits for more. */
+  private void drain() {
+    ByteBuffer view = ring.duplicate();
+    long lastSync = System.nanoTime();
+    try {
+      while (running || flushedBytes < committedBytes) {
+        rename();
+        long flushed = flushedBytes;
+        long available = committedBytes - flushed;
+        if (available == 0) {
+          LockSupport.parkNanos(idleNanos);
+          continue;
+        }
+        int position = (int) (flushed % ringCapacity);
+        int length = (int) Math.min(available, ringCapacity - position);
+        view.clear().position(position).limit(position + length);
+
+        long start = System.nanoTime();
+        while (view.hasRemaining()) {
+          channel.write(view);
+        }
+        if (start - lastSync > syncPeriodNanos) {
+          channel.force(false);
+          lastSync = start;
+        }
+        maxFlushNanos = Math.max(maxFlushNanos, System.nanoTime() - start);
+        flushedBytes = flushed + length;
+      }
+      channel.force(false);
+      channel.close();
+      rename();
+    } catch (IOException e) {
+      fail("Failed to write log: " + e.getMessage());
+    }
+  }
+
+  /** Move the file to the requested name, if it changed. The open channel keeps writing to it. */
+  private void rename() {
+    String name = requestedName;
+    if (name.equals(fileName) || name.equals(failedName)) {
+      return;
+    }
+    try {
+      Files.move(folder.resolve(fileName), folder.resolve(name));
+      fileName = name;
+      System.out.println("[BufferedLogWriter] Renamed log to " + folder.resolve(name));
+    } catch (IOException e) {
+      // Don't retry until the requested name changes again
+      failedName = name;
+      DriverStation.reportWarning("Failed to rename log to " + name + ": " + e.getMessage(), false);
+    }
+  }
+
+  private void fail(String message) {
+    failed = true;
+    running = false;
+    failedAlert.set(true);
+    DriverStation.reportError(message, false);
+  }
+}
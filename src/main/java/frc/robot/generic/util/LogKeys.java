@@ -0,0 +1,78 @@
+package frc.robot.generic.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds hierarchical log keys once, so they aren't concatenated every loop.
+ *
+ * <p>Create the keys at construction and keep them in fields:
+ *
+ * <pre>
+ * private final String atSetpointKey;
+ *
+ * public Mechanism(String name) {
+ *   LogKeys keys = LogKeys.of(name);
+ *   atSetpointKey = keys.key("AtSetpoint");
+ * }
+ *
+ * public void periodic() {
+ *   Logger.recordOutput(atSetpointKey, atSetpoint);
+ * }
+ * </pre>
+ *
+ * <p>Every key is interned in a single registry, so each key exists as one string no matter how
+ * many times it is built. Building keys allocates, and is not meant for the robot loop.
+ */
+public final class LogKeys {
+  private static final Map<String, String> registry = new HashMap<>();
+
+  private final String prefix;
+
+  private LogKeys(String prefix) {
+    this.prefix = prefix;
+  }
+
+  /**
+   * @param parts the parts of the prefix, joined with {@code /}
+   * @return keys under the prefix
+   */
+  public static LogKeys of(String... parts) {
+    return new LogKeys(intern(String.join("/", parts)));
+  }
+
+  /**
+   * @param name the name of the child
+   * @return keys under {@code <prefix>/<name>}
+   */
+  public LogKeys child(String name) {
+    return new LogKeys(key(name));
+  }
+
+  /**
+   * @param index the index of the child, like a module or camera index
+   * @return keys under {@code <prefix><index>}, like {@code Drive/Module0}
+   */
+  public LogKeys indexed(int index) {
+    return new LogKeys(intern(prefix + index));
+  }
+
+  /**
+   * @param name the name of the key
+   * @return the key {@code <prefix>/<name>}
+   */
+  public String key(String name) {
+    return intern(prefix + "/" + name);
+  }
+
+  /**
+   * @return the prefix itself, as a key
+   */
+  public String prefix() {
+    return prefix;
+  }
+
+  private static synchronized String intern(String key) {
+    return registry.computeIfAbsent(key, k -> k);
+  }
+}
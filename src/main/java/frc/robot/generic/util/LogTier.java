@@ -0,0 +1,99 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.util.struct.StructSerializable;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+import org.littletonrobotics.junction.Logger;
+import org.littletonrobotics.junction.networktables.LoggedNetworkBoolean;
+
+/**
+ * Tiers of logged outputs, so logs can be lean on the field and detailed in the pit.
+ *
+ * <p>Guard optional outputs with the tier they belong to. Checking {@link #isEnabled()} before
+ * building the key and value skips all of the work when the tier is off:
+ *
+ * <pre>
+ * if (LogTier.DEBUG.isEnabled()) {
+ *   Logger.recordOutput(name + "/Error", computeError());
+ * }
+ * </pre>
+ *
+ * <p>For one-off outputs, the {@code recordOutput} helpers take a supplier that is only evaluated
+ * when the tier is on. Capturing lambdas still allocate, so prefer the explicit check in code that
+ * runs every loop.
+ *
+ * <p>{@link #DEBUG} and {@link #VISUALIZATION} can be toggled from NT under {@code /LogTiers}. Both
+ * are off while connected to the FMS, and {@link #VISUALIZATION} is also off while the {@link
+ * LoopWatchdog} has the robot degraded. Tiers are updated once per loop by the robot.
+ */
+public enum LogTier {
+  /** Needed to understand a match after the fact. Always on. */
+  ESSENTIAL(null),
+  /** Internal values for debugging and tuning. */
+  DEBUG("Debug"),
+  /** Values that are only used to draw the robot, like poses of mechanisms. */
+  VISUALIZATION("Visualization");
+
+  private final LoggedNetworkBoolean toggle;
+  private boolean enabled = true;
+
+  LogTier(String toggleName) {
+    toggle = toggleName == null ? null : new LoggedNetworkBoolean("/LogTiers/" + toggleName, true);
+  }
+
+  /** Update which tiers are enabled. Called by the robot once per loop, before the scheduler. */
+  public static void update() {
+    boolean onField = DriverStation.isFMSAttached();
+    DEBUG.enabled = DEBUG.toggle.get() && !onField;
+    VISUALIZATION.enabled =
+        VISUALIZATION.toggle.get() && !onField && !LoopWatchdog.isDegraded();
+    Logger.recordOutput("LogTiers/Debug", DEBUG.enabled);
+    Logger.recordOutput("LogTiers/Visualization", VISUALIZATION.enabled);
+  }
+
+  /**
+   * @return if outputs of this tier should be logged
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Log a number if this tier is enabled. The value is only computed when it is.
+   *
+   * @param key the key
+   * @param value the value
+   * @param unit the unit, as understood by AdvantageScope
+   */
+  public void recordOutput(String key, DoubleSupplier value, String unit) {
+    if (enabled) {
+      Logger.recordOutput(key, value.getAsDouble(), unit);
+    }
+  }
+
+  /**
+   * Log a boolean if this tier is enabled. The value is only computed when it is.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void recordOutput(String key, BooleanSupplier value) {
+    if (enabled) {
+      Logger.recordOutput(key, value.getAsBoolean());
+    }
+  }
+
+  /**
+   * Log a struct if this tier is enabled. The value is only computed when it is.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public <T extends StructSerializable> void recordOutput(String key, Supplier<T> value) {
+    if (enabled) {
+      Logger.recordOutput(key, value.get());
+    }
+  }
+}
@@ -4,24 +4,35 @@
 
 package frc.robot.generic.util.LoggedAnalogInput;
 
+import frc.robot.generic.util.LogKeys;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.function.DoubleSupplier;
 import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import org.littletonrobotics.junction.AutoLog;
 import org.littletonrobotics.junction.Logger;
 
 /** Add your docs here. */
-@RequiredArgsConstructor
 public abstract class LoggedAnalogInput implements DoubleSupplier {
   private final AnalogInputsAutoLogged inputs = new AnalogInputsAutoLogged();
 
   @Getter(value = AccessLevel.PROTECTED)
   private final String name;
 
+  private final String inputsKey;
+  private final int periodicSlot;
+
+  public LoggedAnalogInput(String name) {
+    this.name = name;
+    this.inputsKey = LogKeys.of("DigitalInput", name).prefix();
+    this.periodicSlot = LoopProfiler.register("AnalogInput/" + name + "/Periodic");
+  }
+
   public void periodic() {
+    long start = LoopProfiler.start();
     updateInputs(inputs);
-    Logger.processInputs("DigitalInput/" + name, inputs);
+    Logger.processInputs(inputsKey, inputs);
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   public abstract LoggedAnalogInput withAverageBits(int bits);
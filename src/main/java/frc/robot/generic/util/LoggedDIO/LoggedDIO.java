@@ -4,21 +4,29 @@
 
 package frc.robot.generic.util.LoggedDIO;
 
+import frc.robot.generic.util.LogKeys;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.function.BooleanSupplier;
-import lombok.RequiredArgsConstructor;
 import org.littletonrobotics.junction.AutoLog;
 import org.littletonrobotics.junction.Logger;
 
 /** Add your docs here. */
-@RequiredArgsConstructor
 public abstract class LoggedDIO implements BooleanSupplier {
   private final DIOInputsAutoLogged inputs = new DIOInputsAutoLogged();
-  private final String name;
+  private final String inputsKey;
+  private final int periodicSlot;
   private boolean reversed = false;
 
+  public LoggedDIO(String name) {
+    this.inputsKey = LogKeys.of("DigitalInput", name).prefix();
+    this.periodicSlot = LoopProfiler.register(inputsKey + "/Periodic");
+  }
+
   public void periodic() {
+    long start = LoopProfiler.start();
     updateInputs(inputs);
-    Logger.processInputs("DigitalInput/" + name, inputs);
+    Logger.processInputs(inputsKey, inputs);
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   protected abstract void updateInputs(DIOInputsAutoLogged inputs);
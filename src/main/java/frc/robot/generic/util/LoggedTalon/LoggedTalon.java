@@ -13,6 +13,7 @@ import edu.wpi.first.units.measure.*;
 import edu.wpi.first.wpilibj.Alert;
 import edu.wpi.first.wpilibj.DriverStation;
 import frc.robot.Constants;
+import frc.robot.generic.util.LogKeys;
 import frc.robot.generic.util.LoggedTalon.Follower.PhoenixTalonFollower;
 import frc.robot.generic.util.LoggedTalon.TalonFX.LoggedTalonFX;
 import frc.robot.generic.util.LoggedTalon.TalonFX.NoOppTalonFX;
@@ -24,6 +25,7 @@ import frc.robot.generic.util.LoggedTalon.TalonFXS.NoOppTalonFXS;
 import frc.robot.generic.util.LoggedTalon.TalonFXS.PhoenixTalonFXS;
 import frc.robot.generic.util.LoggedTunableMeasure;
 import frc.robot.generic.util.LoggedTunableNumber;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.function.Consumer;
 import org.littletonrobotics.junction.Logger;
 import org.littletonrobotics.junction.inputs.LoggableInputs;
@@ -116,7 +118,12 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
  */
 public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   protected final String name;
-  private final TalonInputsAutoLogged inputs = new TalonInputsAutoLogged();
+  /** Cached so the key isn't rebuilt every loop */
+  private final String inputsKey;
+
+  private final TalonInputs inputs;
+  private final int updateInputsSlot;
+  private final int processInputsSlot;
   private final Alert[] connectionAlerts;
   private boolean pidTuning = false;
   private boolean mmTuning = false;
@@ -130,6 +137,15 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   private final MutAngularVelocity velocity = RadiansPerSecond.mutable(0);
   private final MutAngle position = Radian.mutable(0);
 
+  private MechanismStateEstimator estimator = null;
+  private String filteredPositionKey = null;
+  private String filteredVelocityKey = null;
+  private String filteredAccelerationKey = null;
+  private final MutAngularVelocity filteredVelocity = RadiansPerSecond.mutable(0);
+  private final MutAngle filteredPosition = Radian.mutable(0);
+  private final MutAngularAcceleration filteredAcceleration =
+      RotationsPerSecondPerSecond.mutable(0);
+
   /**
    * Create a new {@code LoggedTalon}
    *
@@ -152,6 +168,10 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   public LoggedTalon(String name, int followers) {
     this.followers = followers;
     this.name = name;
+    this.inputsKey = LogKeys.of("Motors", name).prefix();
+    this.inputs = new TalonInputs(followers + 1);
+    this.updateInputsSlot = LoopProfiler.register(inputsKey + "/UpdateInputs");
+    this.processInputsSlot = LoopProfiler.register(inputsKey + "/ProcessInputs");
     this.connectionAlerts = new Alert[followers + 1];
     this.connectionAlerts[0] =
         new Alert("Motor " + name + " is not connected", Alert.AlertType.kError);
@@ -162,13 +182,6 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
                 "Motor " + name + " follower " + i + " is not connected", Alert.AlertType.kError);
       }
     }
-    inputs.torqueCurrentAmps = new double[followers + 1];
-    inputs.temperatureC = new double[followers + 1];
-    inputs.connected = new boolean[followers + 1];
-    inputs.supplyCurrentAmps = new double[followers + 1];
-    inputs.appliedVolts = new double[followers + 1];
-    inputs.positionRot = 0;
-    inputs.velocityRotPS = 0;
   }
 
   /**
@@ -178,8 +191,18 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
    * all-important {@link Logger#processInputs(String, LoggableInputs)}
    */
   public void periodic() {
+    long start = LoopProfiler.start();
     this.updateInputs(inputs);
-    Logger.processInputs("Motors/" + name, inputs);
+    LoopProfiler.stop(updateInputsSlot, start);
+    start = LoopProfiler.start();
+    Logger.processInputs(inputsKey, inputs);
+    LoopProfiler.stop(processInputsSlot, start);
+    if (estimator != null) {
+      estimator.update(inputs.positionRot, inputs.velocityRotPS);
+      Logger.recordOutput(filteredPositionKey, estimator.getPositionRot());
+      Logger.recordOutput(filteredVelocityKey, estimator.getVelocityRotPS());
+      Logger.recordOutput(filteredAccelerationKey, estimator.getAccelerationRotPS2());
+    }
     if (pidTuning) {
       LoggedTunableNumber.ifChanged(this, this::applyAllTuningChanges, tunableNumbers);
     }
@@ -311,9 +334,28 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
     return self();
   }
 
+  /**
+   * Filter this motor's position and velocity with a state estimator. The filtered state is
+   * available from {@link #getFilteredPosition()}, {@link #getFilteredVelocity()} and {@link
+   * #getFilteredAcceleration()}, and is used by the {@code atSetpoint} checks.
+   *
+   * <p>The estimator only depends on the logged inputs, so it replays identically.
+   *
+   * @param estimator the estimator to run. It must not be shared with other motors
+   * @return {@code this} for method chaining
+   */
+  public T withStateEstimator(MechanismStateEstimator estimator) {
+    this.estimator = estimator;
+    LogKeys keys = LogKeys.of(inputsKey, "Filtered");
+    this.filteredPositionKey = keys.key("PositionRot");
+    this.filteredVelocityKey = keys.key("VelocityRotPS");
+    this.filteredAccelerationKey = keys.key("AccelerationRotPS2");
+    return self();
+  }
+
   /**
    * Check if the motor position is within position tolerance. The current position of {@link
-   * #getPosition()} is used.
+   * #getFilteredPosition()} is used.
    *
    * <p>This helper function exists because it is unit aware
    *
@@ -325,13 +367,13 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   public boolean atSetpoint(Angle setpoint, Angle tolerance) {
     return MathUtil.isNear(
         setpoint.baseUnitMagnitude(),
-        getPosition().baseUnitMagnitude(),
+        getFilteredPosition().baseUnitMagnitude(),
         tolerance.baseUnitMagnitude());
   }
 
   /**
    * Check if the motor velocity is within velocity tolerance. The current velocity of {@link
-   * #getVelocity()} is used.
+   * #getFilteredVelocity()} is used.
    *
    * <p>This helper function exists because it is unit aware
    *
@@ -343,7 +385,7 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
   public boolean atSetpoint(AngularVelocity setpoint, AngularVelocity tolerance) {
     return MathUtil.isNear(
         setpoint.baseUnitMagnitude(),
-        getVelocity().baseUnitMagnitude(),
+        getFilteredVelocity().baseUnitMagnitude(),
         tolerance.baseUnitMagnitude());
   }
 
@@ -477,6 +519,43 @@ public abstract class LoggedTalon<T extends LoggedTalon<T>> {
     return position.mut_replace(this.inputs.positionRot, Rotation);
   }
 
+  /**
+   * Get the position estimated by the {@link #withStateEstimator(MechanismStateEstimator) state
+   * estimator}, or {@link #getPosition()} if there is none.
+   *
+   * @return the filtered position
+   */
+  public Angle getFilteredPosition() {
+    if (estimator == null) {
+      return getPosition();
+    }
+    return filteredPosition.mut_replace(estimator.getPositionRot(), Rotation);
+  }
+
+  /**
+   * Get the velocity estimated by the {@link #withStateEstimator(MechanismStateEstimator) state
+   * estimator}, or {@link #getVelocity()} if there is none.
+   *
+   * @return the filtered velocity
+   */
+  public AngularVelocity getFilteredVelocity() {
+    if (estimator == null) {
+      return getVelocity();
+    }
+    return filteredVelocity.mut_replace(estimator.getVelocityRotPS(), RotationsPerSecond);
+  }
+
+  /**
+   * Get the acceleration estimated by the {@link #withStateEstimator(MechanismStateEstimator)
+   * state estimator}, or zero if there is none.
+   *
+   * @return the filtered acceleration
+   */
+  public AngularAcceleration getFilteredAcceleration() {
+    return filteredAcceleration.mut_replace(
+        estimator == null ? 0 : estimator.getAccelerationRotPS2(), RotationsPerSecondPerSecond);
+  }
+
   /**
    * Set the position of the relative encoder inside the motor. This function acts identically to
    * {@link TalonFX#setPosition(Angle)}
@@ -0,0 +1,200 @@
+package frc.robot.generic.util.LoggedTalon;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.Nat;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SteadyStateKalmanFilter;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N2;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.system.Discretization;
+import edu.wpi.first.math.system.LinearSystem;
+import org.ejml.data.DMatrixRMaj;
+import org.ejml.dense.row.CommonOps_DDRM;
+
+/**
+ * Steady state Kalman filter for the state of a single mechanism, driven by the position and
+ * velocity a {@link LoggedTalon} reads each loop.
+ *
+ * <p>The mechanism is modeled with WPILib's {@link LinearSystem} as a constant acceleration
+ * system, so the acceleration is estimated without differentiating noisy velocity. The discrete
+ * model and the steady state gain are computed once at construction; after that {@link
+ * #update(double, double)} only works on preallocated matrices and does not allocate.
+ *
+ * <p>Two models are available:
+ *
+ * <ul>
+ *   <li>{@link #position(double, double, double, double, double, double)} estimates position,
+ *       velocity and acceleration from both measurements. A position measurement far from the
+ *       prediction, like after {@link LoggedTalon#setPosition}, reseeds the filter.
+ *   <li>{@link #velocity(double, double, double, double)} estimates velocity and acceleration from
+ *       velocity alone, for mechanisms like flywheels where position is meaningless. Position is
+ *       passed through unfiltered.
+ * </ul>
+ *
+ * <p>All values are in rotations of the mechanism, as reported by the Talon.
+ */
+public class MechanismStateEstimator {
+  /** Position innovations larger than this many measurement standard deviations reseed */
+  private static final double positionResetStdDevs = 20;
+
+  private final boolean measuresPosition;
+  private final double positionResetThreshold;
+
+  private final DMatrixRMaj discA;
+  private final DMatrixRMaj gain;
+  private final DMatrixRMaj xHat;
+  private final DMatrixRMaj xPredicted;
+  private final DMatrixRMaj innovation;
+
+  private boolean initialized = false;
+  private double rawPosition = 0;
+
+  private MechanismStateEstimator(
+      boolean measuresPosition,
+      double positionResetThreshold,
+      Matrix<?, ?> discA,
+      Matrix<?, ?> gain) {
+    this.measuresPosition = measuresPosition;
+    this.positionResetThreshold = positionResetThreshold;
+    this.discA = discA.getStorage().getDDRM().copy();
+    this.gain = gain.getStorage().getDDRM().copy();
+    xHat = new DMatrixRMaj(this.discA.numRows, 1);
+    xPredicted = new DMatrixRMaj(this.discA.numRows, 1);
+    innovation = new DMatrixRMaj(this.gain.numCols, 1);
+  }
+
+  /**
+   * Create an estimator that uses position and velocity measurements.
+   *
+   * @param positionStdDev model uncertainty in position, rotations
+   * @param velocityStdDev model uncertainty in velocity, rotations per second
+   * @param accelerationStdDev model uncertainty in acceleration, rotations per second squared.
+   *     Larger values follow changes in acceleration faster but filter less
+   * @param positionMeasurementStdDev measurement noise of the position, rotations
+   * @param velocityMeasurementStdDev measurement noise of the velocity, rotations per second
+   * @param dtSeconds the period {@link #update(double, double)} is called at
+   * @return the estimator
+   */
+  public static MechanismStateEstimator position(
+      double positionStdDev,
+      double velocityStdDev,
+      double accelerationStdDev,
+      double positionMeasurementStdDev,
+      double velocityMeasurementStdDev,
+      double dtSeconds) {
+    Matrix<N3, N3> a = new Matrix<>(Nat.N3(), Nat.N3());
+    a.set(0, 1, 1);
+    a.set(1, 2, 1);
+    Matrix<N2, N3> c = new Matrix<>(Nat.N2(), Nat.N3());
+    c.set(0, 0, 1);
+    c.set(1, 1, 1);
+    LinearSystem<N3, N1, N2> plant =
+        new LinearSystem<>(
+            a, new Matrix<>(Nat.N3(), Nat.N1()), c, new Matrix<>(Nat.N2(), Nat.N1()));
+    SteadyStateKalmanFilter<N3, N1, N2> filter =
+        new SteadyStateKalmanFilter<>(
+            Nat.N3(),
+            Nat.N2(),
+            plant,
+            VecBuilder.fill(positionStdDev, velocityStdDev, accelerationStdDev),
+            VecBuilder.fill(positionMeasurementStdDev, velocityMeasurementStdDev),
+            dtSeconds);
+    return new MechanismStateEstimator(
+        true,
+        positionResetStdDevs * positionMeasurementStdDev,
+        Discretization.discretizeA(a, dtSeconds),
+        filter.getK());
+  }
+
+  /**
+   * Create an estimator that only uses velocity measurements.
+   *
+   * @param velocityStdDev model uncertainty in velocity, rotations per second
+   * @param accelerationStdDev model uncertainty in acceleration, rotations per second squared.
+   *     Larger values follow changes in acceleration faster but filter less
+   * @param velocityMeasurementStdDev measurement noise of the velocity, rotations per second
+   * @param dtSeconds the period {@link #update(double, double)} is called at
+   * @return the estimator
+   */
+  public static MechanismStateEstimator velocity(
+      double velocityStdDev,
+      double accelerationStdDev,
+      double velocityMeasurementStdDev,
+      double dtSeconds) {
+    Matrix<N2, N2> a = new Matrix<>(Nat.N2(), Nat.N2());
+    a.set(0, 1, 1);
+    Matrix<N1, N2> c = new Matrix<>(Nat.N1(), Nat.N2());
+    c.set(0, 0, 1);
+    LinearSystem<N2, N1, N1> plant =
+        new LinearSystem<>(
+            a, new Matrix<>(Nat.N2(), Nat.N1()), c, new Matrix<>(Nat.N1(), Nat.N1()));
+    SteadyStateKalmanFilter<N2, N1, N1> filter =
+        new SteadyStateKalmanFilter<>(
+            Nat.N2(),
+            Nat.N1(),
+            plant,
+            VecBuilder.fill(velocityStdDev, accelerationStdDev),
+            VecBuilder.fill(velocityMeasurementStdDev),
+            dtSeconds);
+    return new MechanismStateEstimator(
+        false, Double.POSITIVE_INFINITY, Discretization.discretizeA(a, dtSeconds), filter.getK());
+  }
+
+  /**
+   * Run one predict and correct step. This does not allocate.
+   *
+   * @param positionRot the measured position
+   * @param velocityRotPS the measured velocity
+   */
+  public void update(double positionRot, double velocityRotPS) {
+    rawPosition = positionRot;
+    if (!initialized) {
+      seed(positionRot, velocityRotPS);
+      return;
+    }
+
+    CommonOps_DDRM.mult(discA, xHat, xPredicted);
+    // The measurements are the leading states, so C is a selection
+    if (measuresPosition) {
+      innovation.data[0] = positionRot - xPredicted.data[0];
+      innovation.data[1] = velocityRotPS - xPredicted.data[1];
+      if (Math.abs(innovation.data[0]) > positionResetThreshold) {
+        seed(positionRot, velocityRotPS);
+        return;
+      }
+    } else {
+      innovation.data[0] = velocityRotPS - xPredicted.data[0];
+    }
+    CommonOps_DDRM.multAdd(gain, innovation, xPredicted);
+    xHat.setTo(xPredicted);
+  }
+
+  private void seed(double positionRot, double velocityRotPS) {
+    xHat.zero();
+    if (measuresPosition) {
+      xHat.data[0] = positionRot;
+      xHat.data[1] = velocityRotPS;
+    } else {
+      xHat.data[0] = velocityRotPS;
+    }
+    initialized = true;
+  }
+
+  /** Forget the estimate. The next update seeds it from the measurements. */
+  public void reset() {
+    initialized = false;
+  }
+
+  public double getPositionRot() {
+    return measuresPosition ? xHat.data[0] : rawPosition;
+  }
+
+  public double getVelocityRotPS() {
+    return measuresPosition ? xHat.data[1] : xHat.data[0];
+  }
+
+  public double getAccelerationRotPS2() {
+    return measuresPosition ? xHat.data[2] : xHat.data[1];
+  }
+}
@@ -1,14 +1,17 @@
 package frc.robot.generic.util.LoggedTalon.TalonFX;
 
+import static edu.wpi.first.units.Units.*;
+
 import com.ctre.phoenix6.CANBus;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.system.plant.LinearSystemId;
-import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import frc.robot.generic.util.LoggedTalon.Follower.PhoenixTalonFollower;
 import frc.robot.generic.util.LoggedTalon.TalonInputs;
+import frc.robot.generic.util.SimTiming;
+import frc.robot.generic.util.SubsteppedMotorSim;
 
 public class TalonFXFlywheelSim extends BaseTalonFXSim {
-  private final FlywheelSim motorSim;
+  private final SubsteppedMotorSim motorSim;
 
   /**
    * A simple flywheel sim representing a {@link LoggedTalonFX}
@@ -36,16 +39,19 @@ public class TalonFXFlywheelSim extends BaseTalonFXSim {
       PhoenixTalonFollower... followers) {
     super(canID, canBus, name, followers);
     motorSim =
-        new FlywheelSim(
-            LinearSystemId.createFlywheelSystem(
-                DCMotor.getKrakenX60Foc(followers.length + 1), J_KgMetersSquared, gearReduction),
-            DCMotor.getKrakenX60Foc(followers.length + 1));
+        new SubsteppedMotorSim(
+            DCMotor.getKrakenX60Foc(followers.length + 1),
+            J_KgMetersSquared,
+            gearReduction,
+            SimTiming.loopPeriodSecs);
   }
 
   @Override
   protected void simulationPeriodic(TalonInputs inputs) {
+    // Loop rate only: the simulated Talon's output is only read here, once per loop, so it is
+    // held for the whole loop and substepping would give the same result
     motorSim.setInputVoltage(motorSimState.getMotorVoltage());
-    motorSim.update(0.02);
-    motorSimState.setRotorVelocity(motorSim.getAngularVelocity());
+    motorSim.step();
+    motorSimState.setRotorVelocity(RadiansPerSecond.of(motorSim.getAngularVelocityRadPerSec()));
   }
 }
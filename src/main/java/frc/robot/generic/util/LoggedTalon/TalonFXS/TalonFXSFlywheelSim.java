@@ -1,17 +1,20 @@
 package frc.robot.generic.util.LoggedTalon.TalonFXS;
 
+import static edu.wpi.first.units.Units.*;
+
 import com.ctre.phoenix6.CANBus;
 import edu.wpi.first.math.system.plant.DCMotor;
 import edu.wpi.first.math.system.plant.LinearSystemId;
-import edu.wpi.first.wpilibj.simulation.FlywheelSim;
 import frc.robot.generic.util.LoggedTalon.Follower.PhoenixTalonFollower;
 import frc.robot.generic.util.LoggedTalon.TalonInputs;
+import frc.robot.generic.util.SimTiming;
+import frc.robot.generic.util.SubsteppedMotorSim;
 
 // Maintainer notes:
 // The file is currently a copy of LoggedTalonFX, with all instances of TalonFX replaced with
 // TalonFXS. Thanks CTRE, much appreciated
 public class TalonFXSFlywheelSim extends BaseTalonFXSSim {
-  private final FlywheelSim motorSim;
+  private final SubsteppedMotorSim motorSim;
 
   /**
    * A simple flywheel sim representing a {@link LoggedTalonFXS}
@@ -39,16 +42,19 @@ public class TalonFXSFlywheelSim extends BaseTalonFXSSim {
       PhoenixTalonFollower... followers) {
     super(canID, canBus, name, followers);
     motorSim =
-        new FlywheelSim(
-            LinearSystemId.createFlywheelSystem(
-                DCMotor.getMinion(followers.length + 1), J_KgMetersSquared, gearReduction),
-            DCMotor.getMinion(followers.length + 1));
+        new SubsteppedMotorSim(
+            DCMotor.getMinion(followers.length + 1),
+            J_KgMetersSquared,
+            gearReduction,
+            SimTiming.loopPeriodSecs);
   }
 
   @Override
   protected void simulationPeriodic(TalonInputs inputs) {
+    // Loop rate only: the simulated Talon's output is only read here, once per loop, so it is
+    // held for the whole loop and substepping would give the same result
     motorSim.setInputVoltage(motorSimState.getMotorVoltage());
-    motorSim.update(0.02);
-    motorSimState.setRotorVelocity(motorSim.getAngularVelocity());
+    motorSim.step();
+    motorSimState.setRotorVelocity(RadiansPerSecond.of(motorSim.getAngularVelocityRadPerSec()));
   }
 }
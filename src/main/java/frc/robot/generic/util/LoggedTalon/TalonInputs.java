@@ -1,14 +1,164 @@
 package frc.robot.generic.util.LoggedTalon;
 
-import org.littletonrobotics.junction.AutoLog;
-
-@AutoLog
-public class TalonInputs {
-  public boolean[] connected;
-  public double[] appliedVolts;
-  public double[] torqueCurrentAmps;
-  public double[] supplyCurrentAmps;
-  public double[] temperatureC;
-  public double velocityRotPS;
-  public double positionRot;
+import edu.wpi.first.util.struct.Struct;
+import java.nio.ByteBuffer;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.inputs.LoggableInputs;
+
+/**
+ * Inputs of a Talon and its followers.
+ *
+ * <p>These are logged as a single struct entry rather than one array per field, which keeps a
+ * motor to one contiguous record per loop in the log and over NT. The arrays hold one column per
+ * motor, primary first, and the struct layout depends on the number of motors.
+ */
+public class TalonInputs implements LoggableInputs {
+  private static final String key = "State";
+
+  public final boolean[] connected;
+  public final double[] appliedVolts;
+  public final double[] torqueCurrentAmps;
+  public final double[] supplyCurrentAmps;
+  public final double[] temperatureC;
+  public double velocityRotPS = 0;
+  public double positionRot = 0;
+
+  private final TalonInputsStruct struct;
+
+  /**
+   * @param motors the number of motors, including the primary
+   */
+  public TalonInputs(int motors) {
+    connected = new boolean[motors];
+    appliedVolts = new double[motors];
+    torqueCurrentAmps = new double[motors];
+    supplyCurrentAmps = new double[motors];
+    temperatureC = new double[motors];
+    struct = TalonInputsStruct.forMotors(motors);
+  }
+
+  @Override
+  public void toLog(LogTable table) {
+    table.put(key, struct, this);
+  }
+
+  @Override
+  public void fromLog(LogTable table) {
+    TalonInputs logged = table.get(key, struct, null);
+    if (logged != null) {
+      System.arraycopy(logged.connected, 0, connected, 0, connected.length);
+      System.arraycopy(logged.appliedVolts, 0, appliedVolts, 0, appliedVolts.length);
+      System.arraycopy(logged.torqueCurrentAmps, 0, torqueCurrentAmps, 0, torqueCurrentAmps.length);
+      System.arraycopy(logged.supplyCurrentAmps, 0, supplyCurrentAmps, 0, supplyCurrentAmps.length);
+      System.arraycopy(logged.temperatureC, 0, temperatureC, 0, temperatureC.length);
+      velocityRotPS = logged.velocityRotPS;
+      positionRot = logged.positionRot;
+    }
+  }
+
+  /** Packs the whole motor state, with a fixed number of motors. */
+  public static class TalonInputsStruct implements Struct<TalonInputs> {
+    /* Most mechanisms have at most a few followers, so the structs are shared */
+    private static final TalonInputsStruct[] cache = new TalonInputsStruct[8];
+
+    private final int motors;
+    private final String typeName;
+    private final String schema;
+
+    private TalonInputsStruct(int motors) {
+      this.motors = motors;
+      typeName = "TalonInputs" + motors;
+      schema =
+          "double positionRot;double velocityRotPS;bool connected["
+              + motors
+              + "];double appliedVolts["
+              + motors
+              + "];double torqueCurrentAmps["
+              + motors
+              + "];double supplyCurrentAmps["
+              + motors
+              + "];double temperatureC["
+              + motors
+              + "]";
+    }
+
+    /**
+     * @param motors the number of motors, including the primary
+     * @return the struct for that number of motors
+     */
+    public static TalonInputsStruct forMotors(int motors) {
+      if (motors >= cache.length) {
+        return new TalonInputsStruct(motors);
+      }
+      if (cache[motors] == null) {
+        cache[motors] = new TalonInputsStruct(motors);
+      }
+      return cache[motors];
+    }
+
+    @Override
+    public Class<TalonInputs> getTypeClass() {
+      return TalonInputs.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return typeName;
+    }
+
+    @Override
+    public int getSize() {
+      return kSizeDouble * 2 + motors * (kSizeBool + kSizeDouble * 4);
+    }
+
+    @Override
+    public String getSchema() {
+      return schema;
+    }
+
+    @Override
+    public TalonInputs unpack(ByteBuffer bb) {
+      TalonInputs value = new TalonInputs(motors);
+      unpackInto(value, bb);
+      return value;
+    }
+
+    @Override
+    public void unpackInto(TalonInputs out, ByteBuffer bb) {
+      out.positionRot = bb.getDouble();
+      out.velocityRotPS = bb.getDouble();
+      for (int i = 0; i < motors; i++) {
+        out.connected[i] = bb.get() != 0;
+      }
+      unpackArray(bb, out.appliedVolts);
+      unpackArray(bb, out.torqueCurrentAmps);
+      unpackArray(bb, out.supplyCurrentAmps);
+      unpackArray(bb, out.temperatureC);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, TalonInputs value) {
+      bb.putDouble(value.positionRot);
+      bb.putDouble(value.velocityRotPS);
+      for (int i = 0; i < motors; i++) {
+        bb.put((byte) (value.connected[i] ? 1 : 0));
+      }
+      packArray(bb, value.appliedVolts);
+      packArray(bb, value.torqueCurrentAmps);
+      packArray(bb, value.supplyCurrentAmps);
+      packArray(bb, value.temperatureC);
+    }
+
+    private void packArray(ByteBuffer bb, double[] values) {
+      for (int i = 0; i < motors; i++) {
+        bb.putDouble(values[i]);
+      }
+    }
+
+    private void unpackArray(ByteBuffer bb, double[] out) {
+      for (int i = 0; i < motors; i++) {
+        out[i] = bb.getDouble();
+      }
+    }
+  }
 }
@@ -66,7 +66,7 @@ public class LoggedTunableMeasure<M extends MutableMeasure<? extends Unit, ? ext
    *     otherwise.
    */
   public boolean hasChanged(int id) {
-    if (!Constants.tuningMode) return false;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return false;
     return hasChangedUnchecked(id);
   }
 
@@ -80,7 +80,7 @@ public class LoggedTunableMeasure<M extends MutableMeasure<? extends Unit, ? ext
    *     in tuning mode or otherwise.
    */
   public boolean hasChanged(Object object) {
-    if (!Constants.tuningMode) return false;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return false;
     return hasChangedUnchecked(object.hashCode());
   }
 
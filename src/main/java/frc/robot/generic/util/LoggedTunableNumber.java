@@ -60,11 +60,11 @@ public class LoggedTunableNumber implements DoubleSupplier {
    * @param id Unique identifier for the caller to avoid conflicts when shared between multiple
    *     objects. Recommended approach is to pass the result of "hashCode()" This will be less
    *     optimised than using {@link #hasChanged(Object)}
-   * @return True if the number has changed since the last time this method was called, false
-   *     otherwise.
+   * @return True if the number has changed since the last time this method was called, false if
+   *     not in tuning mode, {@link LoopWatchdog#isDegraded() degraded}, or otherwise.
    */
   public boolean hasChanged(int id) {
-    if (!Constants.tuningMode) return false;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return false;
     return hasChangedUnchecked(id);
   }
 
@@ -78,7 +78,7 @@ public class LoggedTunableNumber implements DoubleSupplier {
    *     in tuning mode or otherwise.
    */
   public boolean hasChanged(Object id) {
-    if (!Constants.tuningMode) return false;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return false;
     return hasChangedUnchecked(id.hashCode());
   }
 
@@ -111,7 +111,7 @@ public class LoggedTunableNumber implements DoubleSupplier {
    */
   public static void ifChanged(
       int id, Consumer<double[]> action, LoggedTunableNumber... tunableNumbers) {
-    if (!Constants.tuningMode) return;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return;
     ifChangedUnchecked(id, action, tunableNumbers);
   }
 
@@ -127,7 +127,7 @@ public class LoggedTunableNumber implements DoubleSupplier {
    */
   public static void ifChanged(
       Object id, Consumer<double[]> action, LoggedTunableNumber... tunableNumbers) {
-    if (!Constants.tuningMode) return;
+    if (!Constants.tuningMode || LoopWatchdog.isDegraded()) return;
     ifChangedUnchecked(id.hashCode(), action, tunableNumbers);
   }
 
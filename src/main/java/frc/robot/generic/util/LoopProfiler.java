@@ -0,0 +1,214 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.Arrays;
+import org.littletonrobotics.junction.LoggedRobot;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Low overhead timing of the pieces of the robot loop.
+ *
+ * <p>Code to be timed registers a slot once, then wraps the work with {@link #start()} and {@link
+ * #stop(int, long)}:
+ *
+ * <pre>
+ * private final int periodicSlot = LoopProfiler.register("Turret/Periodic");
+ *
+ * public void periodic() {
+ *   long start = LoopProfiler.start();
+ *   ...
+ *   LoopProfiler.stop(periodicSlot, start);
+ * }
+ * </pre>
+ *
+ * <p>All storage is preallocated, so recording does not allocate. Time spent in a slot is summed
+ * over a loop, and {@link #endLoop()} (called by the robot at the end of robotPeriodic) moves the
+ * totals into a rolling window. Every {@link #publishPeriod} loops, the p50, p99 and max of each
+ * slot over the window are logged under {@code LoopProfiler/<slot>}. When the loop overruns, the
+ * slots that took the longest in that loop are logged under {@code LoopProfiler/Overrun}.
+ *
+ * <p>Slots may be nested (a subsystem periodic contains its motor periodics), so the slot times do
+ * not add up to the loop time.
+ *
+ * <p>Tests can watch every timed piece of code with a {@link Listener}.
+ *
+ * <p>Only use this from the main robot thread.
+ */
+public final class LoopProfiler {
+  private static final int maxSlots = 256;
+  /** Number of loops the percentiles are taken over */
+  private static final int windowSize = 100;
+  /** Number of loops between publishing percentiles */
+  private static final int publishPeriod = 50;
+
+  private static final int topOffenderCount = 5;
+  private static final long loopPeriodNanos = (long) (LoggedRobot.defaultPeriodSecs * 1e9);
+
+  private static int slotCount = 0;
+  private static final String[] names = new String[maxSlots];
+  private static final String[] p50Keys = new String[maxSlots];
+  private static final String[] p99Keys = new String[maxSlots];
+  private static final String[] maxKeys = new String[maxSlots];
+
+  private static final long[] currentLoop = new long[maxSlots];
+  private static final long[][] window = new long[maxSlots][windowSize];
+  private static final long[] sortScratch = new long[windowSize];
+  private static int windowIndex = 0;
+  private static int windowFilled = 0;
+  private static int loopsSincePublish = 0;
+
+  private static long loopStart = 0;
+  private static long lastLoopNanos = 0;
+  private static long overrunCount = 0;
+  private static final String[] offenderNames = new String[topOffenderCount];
+  private static final double[] offenderMs = new double[topOffenderCount];
+  private static final int[] offenderSlots = new int[topOffenderCount];
+
+  private static Listener listener = null;
+
+  /** Notified around every timed piece of code. For tests. */
+  public interface Listener {
+    /** Called by {@link LoopProfiler#start()}. */
+    void started();
+
+    /**
+     * Called by {@link LoopProfiler#stop(int, long)}. Calls pair with {@link #started()} and nest
+     * like the timed code.
+     *
+     * @param slot the name of the slot, or null if it wasn't registered
+     */
+    void stopped(String slot);
+  }
+
+  private LoopProfiler() {}
+
+  /**
+   * Set the listener. For tests; it is called in the middle of the timed code.
+   *
+   * @param listener the listener, or null for none
+   */
+  public static void setListener(Listener listener) {
+    LoopProfiler.listener = listener;
+  }
+
+  /**
+   * Register a slot. Call this once, at construction.
+   *
+   * @param name the name of the slot. Used as a log key
+   * @return the slot to pass to {@link #stop(int, long)}, or -1 if there are too many slots, in
+   *     which case timing it is ignored
+   */
+  public static int register(String name) {
+    if (slotCount >= maxSlots) {
+      DriverStation.reportWarning("LoopProfiler is out of slots, not timing " + name, false);
+      return -1;
+    }
+    int slot = slotCount++;
+    names[slot] = name;
+    p50Keys[slot] = "LoopProfiler/" + name + "/P50Ms";
+    p99Keys[slot] = "LoopProfiler/" + name + "/P99Ms";
+    maxKeys[slot] = "LoopProfiler/" + name + "/MaxMs";
+    return slot;
+  }
+
+  /**
+   * @return the start time to pass to {@link #stop(int, long)}
+   */
+  public static long start() {
+    if (listener != null) {
+      listener.started();
+    }
+    return System.nanoTime();
+  }
+
+  /**
+   * Record the time since {@code startNanos} against a slot.
+   *
+   * @param slot the slot from {@link #register(String)}
+   * @param startNanos the time from {@link #start()}
+   */
+  public static void stop(int slot, long startNanos) {
+    if (slot >= 0) {
+      currentLoop[slot] += System.nanoTime() - startNanos;
+    }
+    if (listener != null) {
+      listener.stopped(slot >= 0 ? names[slot] : null);
+    }
+  }
+
+  /** Mark the start of the robot loop. */
+  public static void startLoop() {
+    loopStart = System.nanoTime();
+  }
+
+  /** Mark the end of the robot loop. Rolls the loop totals into the window and publishes. */
+  public static void endLoop() {
+    long loopNanos = System.nanoTime() - loopStart;
+    lastLoopNanos = loopNanos;
+    Logger.recordOutput("LoopProfiler/LoopMs", loopNanos / 1e6);
+    if (loopNanos > loopPeriodNanos) {
+      overrunCount++;
+      logOffenders();
+    }
+    Logger.recordOutput("LoopProfiler/OverrunCount", overrunCount);
+
+    for (int slot = 0; slot < slotCount; slot++) {
+      window[slot][windowIndex] = currentLoop[slot];
+      currentLoop[slot] = 0;
+    }
+    windowIndex = (windowIndex + 1) % windowSize;
+    windowFilled = Math.min(windowFilled + 1, windowSize);
+
+    if (++loopsSincePublish >= publishPeriod) {
+      loopsSincePublish = 0;
+      publish();
+    }
+  }
+
+  /**
+   * @return the duration of the last loop, between {@link #startLoop()} and {@link #endLoop()}
+   */
+  public static long getLastLoopNanos() {
+    return lastLoopNanos;
+  }
+
+  private static void publish() {
+    int n = windowFilled;
+    int p50 = (n - 1) / 2;
+    int p99 = (int) Math.ceil(n * 0.99) - 1;
+    for (int slot = 0; slot < slotCount; slot++) {
+      System.arraycopy(window[slot], 0, sortScratch, 0, n);
+      Arrays.sort(sortScratch, 0, n);
+      Logger.recordOutput(p50Keys[slot], sortScratch[p50] / 1e6);
+      Logger.recordOutput(p99Keys[slot], sortScratch[p99] / 1e6);
+      Logger.recordOutput(maxKeys[slot], sortScratch[n - 1] / 1e6);
+    }
+  }
+
+  /** Find the slowest slots of this loop by insertion into a short sorted list. */
+  private static void logOffenders() {
+    int found = 0;
+    for (int slot = 0; slot < slotCount; slot++) {
+      long time = currentLoop[slot];
+      if (time == 0) {
+        continue;
+      }
+      int i = Math.min(found, topOffenderCount - 1);
+      if (found == topOffenderCount && time <= currentLoop[offenderSlots[i]]) {
+        continue;
+      }
+      while (i > 0 && currentLoop[offenderSlots[i - 1]] < time) {
+        offenderSlots[i] = offenderSlots[i - 1];
+        i--;
+      }
+      offenderSlots[i] = slot;
+      found = Math.min(found + 1, topOffenderCount);
+    }
+    for (int i = 0; i < topOffenderCount; i++) {
+      offenderNames[i] = i < found ? names[offenderSlots[i]] : "";
+      offenderMs[i] = i < found ? currentLoop[offenderSlots[i]] / 1e6 : 0;
+    }
+    Logger.recordOutput("LoopProfiler/Overrun/Offenders", offenderNames);
+    Logger.recordOutput("LoopProfiler/Overrun/OffenderMs", offenderMs);
+  }
+}
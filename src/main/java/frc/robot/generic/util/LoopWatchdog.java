@@ -0,0 +1,97 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.DriverStation;
+import org.littletonrobotics.junction.AutoLog;
+import org.littletonrobotics.junction.LoggedRobot;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Watches the loop time and switches the robot into a degraded mode while it keeps overrunning.
+ *
+ * <p>After {@link #overrunsToDegrade} consecutive loops over the loop period, the robot is degraded
+ * and optional work should be skipped. Check {@link #isDegraded()} before doing it. Currently:
+ *
+ * <ul>
+ *   <li>{@link LogTier#VISUALIZATION} outputs are not logged
+ *   <li>Tunable numbers stop polling NT and checking for changes
+ * </ul>
+ *
+ * <p>Once {@link #headroomLoopsToRestore} consecutive loops finish within {@link #headroomFraction}
+ * of the period, normal behavior is restored. Every transition is logged, and {@link
+ * RobotConfig#degradedModeChanged(boolean)} is called.
+ *
+ * <p>The degraded flag is logged as an input, so a replay sheds the same work on the same loops
+ * regardless of how fast it runs.
+ */
+public final class LoopWatchdog {
+  private static final int overrunsToDegrade = 3;
+  private static final int headroomLoopsToRestore = 50;
+  private static final double headroomFraction = 0.7;
+  private static final long loopPeriodNanos = (long) (LoggedRobot.defaultPeriodSecs * 1e9);
+
+  private static final LoopWatchdogInputsAutoLogged inputs = new LoopWatchdogInputsAutoLogged();
+  private static final Alert degradedAlert =
+      new Alert("Loop overrunning, optional work is being skipped", Alert.AlertType.kWarning);
+
+  private static int consecutiveOverruns = 0;
+  private static int consecutiveHeadroom = 0;
+  private static long transitions = 0;
+
+  @AutoLog
+  public static class LoopWatchdogInputs {
+    public boolean degraded = false;
+  }
+
+  private LoopWatchdog() {}
+
+  /**
+   * Update with the duration of the loop that just finished. Called by the robot once per loop.
+   *
+   * @param loopNanos the loop duration
+   * @return true if the degraded mode changed
+   */
+  public static boolean update(long loopNanos) {
+    boolean wasDegraded = inputs.degraded;
+    if (!Logger.hasReplaySource()) {
+      if (loopNanos > loopPeriodNanos) {
+        consecutiveOverruns++;
+        consecutiveHeadroom = 0;
+      } else {
+        consecutiveOverruns = 0;
+        if (loopNanos < loopPeriodNanos * headroomFraction) {
+          consecutiveHeadroom++;
+        } else {
+          consecutiveHeadroom = 0;
+        }
+      }
+      if (!inputs.degraded && consecutiveOverruns >= overrunsToDegrade) {
+        inputs.degraded = true;
+      } else if (inputs.degraded && consecutiveHeadroom >= headroomLoopsToRestore) {
+        inputs.degraded = false;
+      }
+    }
+    Logger.processInputs("LoopWatchdog", inputs);
+
+    boolean changed = inputs.degraded != wasDegraded;
+    if (changed) {
+      transitions++;
+      DriverStation.reportWarning(
+          inputs.degraded
+              ? "Loop overrunning, entering degraded mode"
+              : "Loop time recovered, leaving degraded mode",
+          false);
+    }
+    degradedAlert.set(inputs.degraded);
+    Logger.recordOutput("LoopWatchdog/Transitions", transitions);
+    Logger.recordOutput("LoopWatchdog/ConsecutiveOverruns", consecutiveOverruns);
+    return changed;
+  }
+
+  /**
+   * @return if optional work should be skipped to keep the loop on time
+   */
+  public static boolean isDegraded() {
+    return inputs.degraded;
+  }
+}
@@ -105,4 +105,50 @@ public class MechanismUtil {
     }
     return command;
   }
+
+  /**
+   * Estimate how long a motion magic (trapezoidal) profile takes to travel a distance. Jerk is
+   * ignored. This does not allocate.
+   *
+   * <p>Any unit may be used as long as it is consistent, for example rotations, rotations per
+   * second, and rotations per second squared.
+   *
+   * @param distance signed distance from the current position to the target
+   * @param initialVelocity signed current velocity
+   * @param cruiseVelocity the motion magic cruise velocity. Must be positive
+   * @param acceleration the motion magic acceleration. Must be positive
+   * @return the time to reach the target at rest, or 0 if the constraints are not positive
+   */
+  public static double motionMagicTime(
+      double distance, double initialVelocity, double cruiseVelocity, double acceleration) {
+    if (cruiseVelocity <= 0 || acceleration <= 0) {
+      return 0;
+    }
+    double magnitude = Math.abs(distance);
+    // Velocity in the direction of travel
+    double velocity = Math.min(initialVelocity * Math.signum(distance), cruiseVelocity);
+    if (magnitude == 0) {
+      velocity = -Math.abs(initialVelocity);
+    }
+    double stoppingDistance = velocity * velocity / (2 * acceleration);
+    if (velocity < 0) {
+      // Moving away: stop, then travel the extra distance from rest
+      return -velocity / acceleration
+          + motionMagicTime(magnitude + stoppingDistance, 0, cruiseVelocity, acceleration);
+    }
+    if (stoppingDistance > magnitude) {
+      // Overshoot: stop, then come back from rest
+      return velocity / acceleration
+          + motionMagicTime(stoppingDistance - magnitude, 0, cruiseVelocity, acceleration);
+    }
+    double peakVelocity = Math.sqrt((2 * acceleration * magnitude + velocity * velocity) / 2);
+    if (peakVelocity <= cruiseVelocity) {
+      // Triangle profile
+      return (2 * peakVelocity - velocity) / acceleration;
+    }
+    double rampDistance =
+        (2 * cruiseVelocity * cruiseVelocity - velocity * velocity) / (2 * acceleration);
+    return (2 * cruiseVelocity - velocity) / acceleration
+        + (magnitude - rampDistance) / cruiseVelocity;
+  }
 }
@@ -0,0 +1,255 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A fixed size ring buffer of timestamped poses and robot relative velocities, stored in primitive
+ * arrays.
+ *
+ * <p>Lookups interpolate along the constant-curvature arc between the two bracketing samples (the
+ * same math as {@link Pose2d#interpolate(Pose2d, double)}, which goes through {@link Pose2d#log}
+ * and {@link Pose2d#exp}), and prediction integrates the latest velocity the same way as {@link
+ * Pose2d#exp(Twist2d)}. Neither allocates: results are written into a caller supplied {@code
+ * double[3]} of {@code {x, y, theta}}.
+ *
+ * <p>There must be a single writer. Readers on other threads are safe: a sequence counter is used
+ * to detect a concurrent write, in which case the read is retried. The fences keep the plain array
+ * and count accesses between the two reads (or writes) of the counter, so a torn read, including a
+ * torn {@code long} count on 32-bit ARM, is always caught by the check.
+ */
+public class PoseHistory {
+  private final int capacity;
+  private final double[] timestamps;
+  private final double[] x;
+  private final double[] y;
+  private final double[] theta;
+  private final double[] vx;
+  private final double[] vy;
+  private final double[] omega;
+
+  /**
+   * Total number of samples ever added. The newest sample is at {@code (count - 1) % capacity}.
+   * Only read between checks of {@link #sequence}.
+   */
+  private long count = 0;
+
+  /** Odd while a write is in progress */
+  private volatile long sequence = 0;
+
+  /**
+   * @param capacity the number of samples to keep
+   */
+  public PoseHistory(int capacity) {
+    this.capacity = capacity;
+    timestamps = new double[capacity];
+    x = new double[capacity];
+    y = new double[capacity];
+    theta = new double[capacity];
+    vx = new double[capacity];
+    vy = new double[capacity];
+    omega = new double[capacity];
+  }
+
+  /**
+   * Add a sample. Samples must be added in increasing timestamp order; older samples are ignored.
+   *
+   * @param timestampSeconds the time of the sample
+   * @param pose the field relative pose
+   * @param vxMetersPerSecond robot relative x velocity
+   * @param vyMetersPerSecond robot relative y velocity
+   * @param omegaRadiansPerSecond angular velocity
+   */
+  public void add(
+      double timestampSeconds,
+      Pose2d pose,
+      double vxMetersPerSecond,
+      double vyMetersPerSecond,
+      double omegaRadiansPerSecond) {
+    if (count > 0 && timestampSeconds <= timestamps[index(count - 1)]) {
+      return;
+    }
+    sequence++;
+    // Don't let the sample become visible before the write is marked in progress
+    VarHandle.storeStoreFence();
+    int i = index(count);
+    timestamps[i] = timestampSeconds;
+    x[i] = pose.getX();
+    y[i] = pose.getY();
+    theta[i] = pose.getRotation().getRadians();
+    vx[i] = vxMetersPerSecond;
+    vy[i] = vyMetersPerSecond;
+    omega[i] = omegaRadiansPerSecond;
+    count++;
+    sequence++;
+  }
+
+  /**
+   * Get the interpolated pose at a timestamp. Timestamps outside of the kept history are clamped to
+   * the oldest or newest sample.
+   *
+   * @param timestampSeconds the time to sample at
+   * @param out array of length 3 to write {@code {x, y, theta}} into
+   * @return false if the buffer is empty, in which case {@code out} is untouched
+   */
+  public boolean sample(double timestampSeconds, double[] out) {
+    while (true) {
+      long start = sequence;
+      if ((start & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      boolean found = sampleUnchecked(timestampSeconds, out);
+      VarHandle.loadLoadFence();
+      if (sequence == start) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * Predict the pose {@code dt} seconds after the newest sample, assuming the newest velocity is
+   * held constant.
+   *
+   * @param dtSeconds the time to predict ahead
+   * @param out array of length 3 to write {@code {x, y, theta}} into
+   * @return false if the buffer is empty, in which case {@code out} is untouched
+   */
+  public boolean predict(double dtSeconds, double[] out) {
+    while (true) {
+      long start = sequence;
+      if ((start & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      boolean found = false;
+      long n = count;
+      if (n > 0) {
+        int i = index(n - 1);
+        exp(
+            x[i],
+            y[i],
+            theta[i],
+            vx[i] * dtSeconds,
+            vy[i] * dtSeconds,
+            omega[i] * dtSeconds,
+            out);
+        found = true;
+      }
+      VarHandle.loadLoadFence();
+      if (sequence == start) {
+        return found;
+      }
+    }
+  }
+
+  /**
+   * @return the timestamp of the newest sample, or NaN if empty
+   */
+  public double getNewestTimestamp() {
+    while (true) {
+      long start = sequence;
+      if ((start & 1) != 0) {
+        Thread.onSpinWait();
+        continue;
+      }
+      long n = count;
+      double timestamp = n > 0 ? timestamps[index(n - 1)] : Double.NaN;
+      VarHandle.loadLoadFence();
+      if (sequence == start) {
+        return timestamp;
+      }
+    }
+  }
+
+  private boolean sampleUnchecked(double timestampSeconds, double[] out) {
+    long n = count;
+    if (n == 0) {
+      return false;
+    }
+    long oldest = Math.max(0, n - capacity);
+    long newest = n - 1;
+    if (timestampSeconds <= timestamps[index(oldest)]) {
+      copy(index(oldest), out);
+      return true;
+    }
+    if (timestampSeconds >= timestamps[index(newest)]) {
+      copy(index(newest), out);
+      return true;
+    }
+
+    // Find the last sample at or before the timestamp
+    long low = oldest;
+    long high = newest;
+    while (low < high) {
+      long mid = (low + high + 1) >>> 1;
+      if (timestamps[index(mid)] <= timestampSeconds) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    int a = index(low);
+    int b = index(low + 1);
+    double t = (timestampSeconds - timestamps[a]) / (timestamps[b] - timestamps[a]);
+
+    // Transform from a to b, in a's frame
+    double cosA = Math.cos(theta[a]);
+    double sinA = Math.sin(theta[a]);
+    double fieldDx = x[b] - x[a];
+    double fieldDy = y[b] - y[a];
+    double dx = fieldDx * cosA + fieldDy * sinA;
+    double dy = -fieldDx * sinA + fieldDy * cosA;
+    double dtheta = MathUtil.angleModulus(theta[b] - theta[a]);
+
+    // Log of the transform (see Pose2d.log)
+    double halfDtheta = dtheta / 2.0;
+    double cosMinusOne = Math.cos(dtheta) - 1;
+    double halfThetaByTanOfHalfDtheta;
+    if (Math.abs(cosMinusOne) < 1e-9) {
+      halfThetaByTanOfHalfDtheta = 1.0 - 1.0 / 12.0 * dtheta * dtheta;
+    } else {
+      halfThetaByTanOfHalfDtheta = -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+    }
+    double twistDx = dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta;
+    double twistDy = -dx * halfDtheta + dy * halfThetaByTanOfHalfDtheta;
+
+    exp(x[a], y[a], theta[a], twistDx * t, twistDy * t, dtheta * t, out);
+    return true;
+  }
+
+  /** Apply a robot relative twist to a pose (see Pose2d.exp). */
+  private static void exp(
+      double x, double y, double theta, double dx, double dy, double dtheta, double[] out) {
+    double sinTheta = Math.sin(dtheta);
+    double cosTheta = Math.cos(dtheta);
+    double s;
+    double c;
+    if (Math.abs(dtheta) < 1e-9) {
+      s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+      c = 0.5 * dtheta;
+    } else {
+      s = sinTheta / dtheta;
+      c = (1 - cosTheta) / dtheta;
+    }
+    double tx = dx * s - dy * c;
+    double ty = dx * c + dy * s;
+    double cos = Math.cos(theta);
+    double sin = Math.sin(theta);
+    out[0] = x + tx * cos - ty * sin;
+    out[1] = y + tx * sin + ty * cos;
+    out[2] = theta + dtheta;
+  }
+
+  private void copy(int i, double[] out) {
+    out[0] = x[i];
+    out[1] = y[i];
+    out[2] = theta[i];
+  }
+
+  private int index(long sample) {
+    return (int) (sample % capacity);
+  }
+}
@@ -48,6 +48,14 @@ public abstract class RobotConfig {
   /** This function is called periodically during all modes, after the command scheduler */
   public void robotPeriodicAfterScheduler() {}
 
+  /**
+   * This function is called when the loop starts or stops overrunning badly enough to enter or
+   * leave degraded mode. See {@link LoopWatchdog}. Robot specific optional work can be shed here.
+   *
+   * @param degraded if the robot is now degraded
+   */
+  public void degradedModeChanged(boolean degraded) {}
+
   /** This function is called once when the robot is disabled. */
   public void disabledInit() {}
 
@@ -0,0 +1,107 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.generic.Robot;
+import java.util.Locale;
+
+/**
+ * Timing of the physics simulation.
+ *
+ * <p>By default the sim follows the wall clock, like the real robot. With the {@value
+ * #speedProperty} system property (or the {@code SIM_SPEED} environment variable), the sim clock is
+ * paused and a stepper thread advances it one loop at a time with {@link SimHooks#stepTiming},
+ * which returns once the robot loop has run. Every loop then sees exactly one period pass, however
+ * long it took, so runs are repeatable. The speed is either {@code max}, to step as fast as the
+ * robot loop runs, or a multiple of real time, like {@code 10}.
+ *
+ * <p>Sim IOs step their physics {@link #substeps()} times per loop, {@link #substepSeconds()} each,
+ * set with the {@value #substepsProperty} system property (or {@code SIM_SUBSTEPS}). More substeps
+ * are more accurate for stiff mechanisms, and cost proportionally more. Only IOs that run their
+ * controllers in robot code can substep; the Talon sims step once per loop, since the output of the
+ * simulated Talon is only read once per loop.
+ */
+public final class SimTiming {
+  public static final String speedProperty = "sim.speed";
+  public static final String substepsProperty = "sim.substeps";
+
+  public static final double loopPeriodSecs = Robot.defaultPeriodSecs;
+
+  private static final int substeps = Math.max(1, Integer.parseInt(config(substepsProperty, "1")));
+  private static final double substepSeconds = loopPeriodSecs / substeps;
+
+  private static Thread stepper = null;
+
+  private SimTiming() {}
+
+  /**
+   * @return the number of physics steps per robot loop
+   */
+  public static int substeps() {
+    return substeps;
+  }
+
+  /**
+   * @return the length of one physics step
+   */
+  public static double substepSeconds() {
+    return substepSeconds;
+  }
+
+  /**
+   * @return if the sim clock is stepped by {@link #start()} instead of following the wall clock
+   */
+  public static boolean isStepped() {
+    return config(speedProperty, null) != null;
+  }
+
+  /**
+   * Start stepping the sim clock, if {@link #isStepped() configured}. Call this once, in simulation
+   * only, before the robot loop starts.
+   */
+  public static synchronized void start() {
+    String speed = config(speedProperty, null);
+    if (speed == null || stepper != null) {
+      return;
+    }
+    // Zero for as fast as possible
+    long stepNanos =
+        "max".equals(speed.toLowerCase(Locale.ROOT))
+            ? 0
+            : (long) (loopPeriodSecs * 1e9 / Double.parseDouble(speed));
+
+    SimHooks.pauseTiming();
+    stepper =
+        new Thread(
+            () -> {
+              long next = System.nanoTime();
+              while (!Thread.currentThread().isInterrupted()) {
+                SimHooks.stepTiming(loopPeriodSecs);
+                if (stepNanos > 0) {
+                  next += stepNanos;
+                  long wait = next - System.nanoTime();
+                  if (wait > 0) {
+                    try {
+                      Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+                    } catch (InterruptedException e) {
+                      return;
+                    }
+                  } else {
+                    // Running behind, don't try to catch up
+                    next = System.nanoTime();
+                  }
+                }
+              }
+            },
+            "SimStepper");
+    stepper.setDaemon(true);
+    stepper.start();
+  }
+
+  private static String config(String property, String defaultValue) {
+    String value = System.getProperty(property);
+    if (value == null) {
+      value = System.getenv(property.toUpperCase(Locale.ROOT).replace('.', '_'));
+    }
+    return value != null ? value : defaultValue;
+  }
+}
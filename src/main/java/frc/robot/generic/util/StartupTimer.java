@@ -0,0 +1,78 @@
+package frc.robot.generic.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Times the phases of robot startup, from {@code main} to the first loop.
+ *
+ * <p>{@link #start()} is called first thing in {@code main}, and {@link #mark(String)} at the end
+ * of each phase. Phases that end before the logger starts are kept until {@link #flush()}, which
+ * is called right after {@link Logger#start()}. Each phase is logged under {@code
+ * Startup/<phase>Ms}, and the whole startup is printed when the first loop ends.
+ */
+public final class StartupTimer {
+  private static long origin = 0;
+  private static long last = 0;
+  private static boolean flushed = false;
+  private static boolean finished = false;
+  private static final List<String> pendingPhases = new ArrayList<>();
+  private static final List<Double> pendingMs = new ArrayList<>();
+
+  private StartupTimer() {}
+
+  /** Start timing. Call this first thing in {@code main}. */
+  public static void start() {
+    origin = System.nanoTime();
+    last = origin;
+  }
+
+  /**
+   * End a phase of startup.
+   *
+   * @param phase the name of the phase that just ended
+   */
+  public static void mark(String phase) {
+    if (finished) {
+      return;
+    }
+    long now = System.nanoTime();
+    double ms = (now - last) / 1e6;
+    last = now;
+    if (flushed) {
+      Logger.recordOutput("Startup/" + phase + "Ms", ms);
+    } else {
+      pendingPhases.add(phase);
+      pendingMs.add(ms);
+    }
+  }
+
+  /**
+   * Log the phases that ended before the logger started. Call this after {@link Logger#start()}.
+   */
+  public static void flush() {
+    for (int i = 0; i < pendingPhases.size(); i++) {
+      Logger.recordOutput("Startup/" + pendingPhases.get(i) + "Ms", pendingMs.get(i));
+    }
+    pendingPhases.clear();
+    pendingMs.clear();
+    flushed = true;
+  }
+
+  /** End the last phase, at the end of the first loop, and log the total. */
+  public static void finish() {
+    if (finished) {
+      return;
+    }
+    mark("FirstLoop");
+    if (!flushed) {
+      flush();
+    }
+    finished = true;
+    double totalMs = (last - origin) / 1e6;
+    Logger.recordOutput("Startup/TotalMs", totalMs);
+    System.out.println(String.format(Locale.ROOT, "Startup took %.0f ms", totalMs));
+  }
+}
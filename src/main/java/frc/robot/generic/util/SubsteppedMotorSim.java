@@ -0,0 +1,114 @@
+package frc.robot.generic.util;
+
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+
+/**
+ * A DC motor driving an inertia, stepped with a fixed time step.
+ *
+ * <p>This is the same model as {@link edu.wpi.first.wpilibj.simulation.DCMotorSim} and {@link
+ * edu.wpi.first.wpilibj.simulation.FlywheelSim}, but the model is discretized once, at
+ * construction, and the state is kept in plain fields. A step is a handful of multiplications and
+ * does not allocate, so stepping many times per loop stays cheap. The discretization is exact, so
+ * the step size only changes how often the input voltage can change, not the accuracy.
+ *
+ * <p>Positions and velocities are of the mechanism, after the gear reduction.
+ */
+public final class SubsteppedMotorSim {
+  private final DCMotor gearbox;
+  private final double gearing;
+
+  // x[k+1] = A x[k] + B u[k], with x = [position, velocity]
+  private final double positionFromVelocity;
+  private final double positionFromVoltage;
+  private final double velocityFromVelocity;
+  private final double velocityFromVoltage;
+
+  private double positionRad = 0;
+  private double velocityRadPerSec = 0;
+  private double voltage = 0;
+
+  /**
+   * @param gearbox the motors driving the mechanism
+   * @param jKgMetersSquared the inertia of the mechanism
+   * @param gearing the gear reduction. Numbers over 1 are reductions
+   * @param stepSeconds the length of one {@link #step()}
+   * @see LinearSystemId#createDCMotorSystem(DCMotor, double, double)
+   */
+  public SubsteppedMotorSim(
+      DCMotor gearbox, double jKgMetersSquared, double gearing, double stepSeconds) {
+    this.gearbox = gearbox;
+    this.gearing = gearing;
+
+    // Continuous model: velocity' = a * velocity + b * voltage
+    double a =
+        -gearing
+            * gearing
+            * gearbox.KtNMPerAmp
+            / (gearbox.KvRadPerSecPerVolt * gearbox.rOhms * jKgMetersSquared);
+    double b = gearing * gearbox.KtNMPerAmp / (gearbox.rOhms * jKgMetersSquared);
+
+    if (a == 0) {
+      velocityFromVelocity = 1;
+      velocityFromVoltage = b * stepSeconds;
+      positionFromVelocity = stepSeconds;
+      positionFromVoltage = b * stepSeconds * stepSeconds / 2;
+    } else {
+      double decay = Math.exp(a * stepSeconds);
+      double integral = (decay - 1) / a;
+      velocityFromVelocity = decay;
+      velocityFromVoltage = b * integral;
+      positionFromVelocity = integral;
+      positionFromVoltage = b * (integral - stepSeconds) / a;
+    }
+  }
+
+  /**
+   * Set the voltage applied to the motors until it is set again.
+   *
+   * @param volts the voltage
+   */
+  public void setInputVoltage(double volts) {
+    voltage = volts;
+  }
+
+  /** Advance the mechanism by one step. */
+  public void step() {
+    double nextPosition =
+        positionRad + positionFromVelocity * velocityRadPerSec + positionFromVoltage * voltage;
+    velocityRadPerSec = velocityFromVelocity * velocityRadPerSec + velocityFromVoltage * voltage;
+    positionRad = nextPosition;
+  }
+
+  /**
+   * Set the state of the mechanism.
+   *
+   * @param positionRad the position
+   * @param velocityRadPerSec the velocity
+   */
+  public void setState(double positionRad, double velocityRadPerSec) {
+    this.positionRad = positionRad;
+    this.velocityRadPerSec = velocityRadPerSec;
+  }
+
+  /**
+   * @return the position of the mechanism
+   */
+  public double getAngularPositionRad() {
+    return positionRad;
+  }
+
+  /**
+   * @return the velocity of the mechanism
+   */
+  public double getAngularVelocityRadPerSec() {
+    return velocityRadPerSec;
+  }
+
+  /**
+   * @return the current drawn by the motors, with the same sign as the voltage
+   */
+  public double getCurrentDrawAmps() {
+    return gearbox.getCurrent(velocityRadPerSec * gearing, voltage) * Math.signum(voltage);
+  }
+}
@@ -19,7 +19,8 @@ public class TunableHolonomicController {
   private final TunableProfiledPIDController yController;
   private final TunableProfiledPIDController thetaController;
   @Getter @Setter private Pose2d fieldRelativeSetpoint = new Pose2d();
-  private final String key;
+  private final String errorKey;
+  private final String xVelocityErrorKey;
 
   public TunableHolonomicController(
       String key,
@@ -32,7 +33,9 @@ public class TunableHolonomicController {
       PIDConstants thetaConstants,
       Constraints thetaConstraints,
       double thetaTolerance) {
-    this.key = key;
+    LogKeys keys = LogKeys.of(key);
+    this.errorKey = keys.key("Error");
+    this.xVelocityErrorKey = keys.key("XVelocityError");
     xController =
         new TunableProfiledPIDController(
             key + "/XController", xConstants, xConstraints, xTolerance);
@@ -46,8 +49,10 @@ public class TunableHolonomicController {
   }
 
   public ChassisSpeeds calculateRobotRelative(Transform2d error) {
-    Logger.recordOutput(key + "/Error", error);
-    Logger.recordOutput("key", xController.getVelocityError());
+    if (LogTier.DEBUG.isEnabled()) {
+      Logger.recordOutput(errorKey, error);
+      Logger.recordOutput(xVelocityErrorKey, xController.getVelocityError());
+    }
     return new ChassisSpeeds(
         // We already have error, so skip its internal subtraction by setting the measurement to 0
         xController.calculate(0, error.getTranslation().getX()),
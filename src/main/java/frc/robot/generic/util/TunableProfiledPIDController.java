@@ -13,7 +13,7 @@ import org.littletonrobotics.junction.Logger;
 public class TunableProfiledPIDController extends ProfiledPIDController
 /*implements Tunable<ProfiledPIDController>*/ {
   private final LoggedTunableNumber[] tunableNumbers;
-  private final String key;
+  private final String resultKey;
 
   public TunableProfiledPIDController(
       String key,
@@ -22,7 +22,7 @@ public class TunableProfiledPIDController extends ProfiledPIDController
       double positionTolerance,
       double period) {
     super(constants.kP, constants.kI, constants.kD, constraints, period);
-    this.key = key;
+    this.resultKey = LogKeys.of(key).key("result");
     super.setIntegratorRange(-constants.iZone, constants.iZone);
     tunableNumbers =
         new LoggedTunableNumber[] {
@@ -45,7 +45,7 @@ public class TunableProfiledPIDController extends ProfiledPIDController
 
   public double calculate(double measurement) {
     double result = super.calculate(measurement);
-    Logger.recordOutput(key + "/result", result);
+    Logger.recordOutput(resultKey, result);
     return result;
   }
 
@@ -105,7 +105,8 @@ public class UnitNetworkNumber extends LoggedNetworkInput implements DoubleSuppl
       };
 
   public void periodic() {
-    if (!Logger.hasReplaySource()) {
+    // While the loop is overrunning, hold the last value instead of polling NT
+    if (!Logger.hasReplaySource() && !LoopWatchdog.isDegraded()) {
       value = entry.get(defaultValue);
     }
     Logger.processInputs(prefix, inputs);
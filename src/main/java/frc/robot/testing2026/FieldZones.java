@@ -0,0 +1,366 @@
+package frc.robot.testing2026;
+
+import edu.wpi.first.math.geometry.Rectangle2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj2.command.button.Trigger;
+import frc.robot.generic.util.LoggedTunableNumber;
+import frc.robot.testing2026.FieldConstants.LinesHorizontal;
+import frc.robot.testing2026.FieldConstants.LinesVertical;
+import java.util.Arrays;
+import lombok.Getter;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Precomputed lookup of the named field regions the robot cares about.
+ *
+ * <p>All zones are axis aligned, so their edges are collected into two sorted arrays and the field
+ * is split into a grid of cells that each hold a bitmask of the zones covering them. A query is two
+ * binary searches over a handful of edges and an array read, so subsystems no longer need to loop
+ * over {@link Rectangle2d}s every cycle.
+ *
+ * <p>The zones are updated once per loop through {@link #update(Translation2d)}, which is called by
+ * {@link frc.robot.generic.RobotState} when the pose is published. Zone membership has hysteresis:
+ * a zone is entered when the point is inside its bounds, and only left once the point is outside
+ * the bounds grown by {@link #hysteresis}. {@link Zone#TOP_TARGET} and {@link Zone#BOTTOM_TARGET}
+ * share an edge and never overlap, so near the centerline only the side the point is in is kept.
+ */
+public class FieldZones {
+  private static FieldZones instance;
+
+  public static FieldZones getInstance() {
+    if (instance == null) {
+      instance = new FieldZones();
+    }
+    return instance;
+  }
+
+  /** Named field regions. Each zone owns one bit of the masks returned by {@link FieldZones}. */
+  public enum Zone {
+    /** Upper half of the field, past the starting line. Used to pick the right passing target. */
+    TOP_TARGET,
+    /** Lower half of the field, past the starting line. Used to pick the left passing target. */
+    BOTTOM_TARGET,
+    LEFT_TRENCH_NEAR,
+    LEFT_TRENCH_FAR,
+    RIGHT_TRENCH_NEAR,
+    RIGHT_TRENCH_FAR;
+
+    public final int mask = 1 << ordinal();
+  }
+
+  /** Mask of every trench zone */
+  public static final int trenches =
+      Zone.LEFT_TRENCH_NEAR.mask
+          | Zone.LEFT_TRENCH_FAR.mask
+          | Zone.RIGHT_TRENCH_NEAR.mask
+          | Zone.RIGHT_TRENCH_FAR.mask;
+
+  /** Mask of the two halves of the field, which are mutually exclusive */
+  private static final int sides = Zone.TOP_TARGET.mask | Zone.BOTTOM_TARGET.mask;
+
+  public static final LoggedTunableNumber stowTrenchGapOffset =
+      new LoggedTunableNumber("Hood/stowTrenchGapOffset", 0, "m");
+  private static final LoggedTunableNumber hysteresis =
+      new LoggedTunableNumber("FieldZones/Hysteresis", 0.05, "m");
+
+  private static final int zoneCount = Zone.values().length;
+
+  /* Zone bounds. Indexed by Zone.ordinal() */
+  private final double[] minX = new double[zoneCount];
+  private final double[] maxX = new double[zoneCount];
+  private final double[] minY = new double[zoneCount];
+  private final double[] maxY = new double[zoneCount];
+
+  /* Lookup grids. One for the real bounds and one for the bounds grown by the hysteresis */
+  private final ZoneGrid entryGrid = new ZoneGrid();
+  private final ZoneGrid exitGrid = new ZoneGrid();
+
+  /* State */
+  /** Zones currently containing the robot */
+  @Getter private int zones = 0;
+
+  /** Zones entered during the last update */
+  @Getter private int entered = 0;
+
+  /** Zones exited during the last update */
+  @Getter private int exited = 0;
+
+  private FieldZones() {
+    rebuild();
+  }
+
+  /**
+   * Update the current zones. This should be called once per loop with the latest robot position.
+   *
+   * @param position the field relative position of the robot
+   */
+  public void update(Translation2d position) {
+    LoggedTunableNumber.ifChanged(this, (values) -> rebuild(), stowTrenchGapOffset, hysteresis);
+
+    double x = position.getX();
+    double y = position.getY();
+    // Stay in a zone until we are outside the grown bounds, enter only when inside the real ones
+    int inside = entryGrid.lookup(x, y);
+    int newZones = inside | (zones & exitGrid.lookup(x, y));
+    if ((newZones & sides) == sides) {
+      // Crossed the centerline, the hysteresis would keep both halves
+      newZones = (newZones & ~sides) | (inside & sides);
+    }
+    entered = newZones & ~zones;
+    exited = zones & ~newZones;
+    zones = newZones;
+
+    Logger.recordOutput("FieldZones/Zones", zones);
+    Logger.recordOutput("FieldZones/Entered", entered);
+    Logger.recordOutput("FieldZones/Exited", exited);
+  }
+
+  /**
+   * @param zone the zone to check
+   * @return if the robot is in the zone as of the last update
+   */
+  public boolean isIn(Zone zone) {
+    return (zones & zone.mask) != 0;
+  }
+
+  /**
+   * @param mask a mask of zones, like {@link #trenches}
+   * @return if the robot is in any of the zones as of the last update
+   */
+  public boolean isInAny(int mask) {
+    return (zones & mask) != 0;
+  }
+
+  /**
+   * Find the zones containing a point, without hysteresis or updating the state.
+   *
+   * @param x field relative x, in meters
+   * @param y field relative y, in meters
+   * @return a mask of all zones containing the point
+   */
+  public int zonesAt(double x, double y) {
+    return entryGrid.lookup(x, y);
+  }
+
+  /**
+   * Check if a straight-line sweep intersects any zone of a mask. The zone bounds are grown by
+   * {@code inflate} on every side, which makes this a conservative footprint-vs-zone test for a
+   * round footprint of that radius.
+   *
+   * <p>This does not allocate and does not use hysteresis.
+   *
+   * @param mask a mask of zones to test, like {@link #trenches}
+   * @param x field relative start x, in meters
+   * @param y field relative start y, in meters
+   * @param dx x displacement over the sweep, in meters
+   * @param dy y displacement over the sweep, in meters
+   * @param inflate distance to grow every zone by, in meters
+   * @return if any part of the sweep touches a zone of the mask
+   */
+  public boolean sweepIntersects(
+      int mask, double x, double y, double dx, double dy, double inflate) {
+    for (int i = 0; i < zoneCount; i++) {
+      if ((mask & (1 << i)) != 0
+          && segmentIntersectsBox(
+              x,
+              y,
+              dx,
+              dy,
+              minX[i] - inflate,
+              maxX[i] + inflate,
+              minY[i] - inflate,
+              maxY[i] + inflate)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A trigger that is true while the robot is in a zone. Use {@link Trigger#onTrue} and {@link
+   * Trigger#onFalse} to react to entry and exit.
+   *
+   * @param zone the zone to watch
+   * @return the trigger
+   */
+  public Trigger trigger(Zone zone) {
+    return new Trigger(() -> isIn(zone));
+  }
+
+  /**
+   * A trigger that is true while the robot is in any of the zones of a mask.
+   *
+   * @param mask a mask of zones, like {@link #trenches}
+   * @return the trigger
+   */
+  public Trigger trigger(int mask) {
+    return new Trigger(() -> isInAny(mask));
+  }
+
+  /**
+   * Get the bounds of a zone. This allocates, so it is meant for visualization and setup only.
+   *
+   * @param zone the zone
+   * @return the bounds of the zone, without hysteresis
+   */
+  public Rectangle2d getBounds(Zone zone) {
+    int i = zone.ordinal();
+    return new Rectangle2d(
+        new Translation2d(minX[i], minY[i]), new Translation2d(maxX[i], maxY[i]));
+  }
+
+  /** Recompute the zone bounds and lookup grids. Called when tuned values change. */
+  private void rebuild() {
+    double offset = stowTrenchGapOffset.get();
+    double farStarting = (2 * LinesVertical.center) - LinesVertical.starting;
+
+    setBounds(
+        Zone.TOP_TARGET,
+        LinesVertical.starting,
+        FieldConstants.fieldWidth * 2,
+        LinesHorizontal.center,
+        LinesHorizontal.leftTrenchOpenStart);
+    setBounds(
+        Zone.BOTTOM_TARGET,
+        LinesVertical.starting,
+        FieldConstants.fieldWidth * 2,
+        LinesHorizontal.rightTrenchOpenEnd,
+        LinesHorizontal.center);
+    setBounds(
+        Zone.LEFT_TRENCH_NEAR,
+        LinesVertical.starting - offset,
+        LinesVertical.neutralZoneNear + offset,
+        LinesHorizontal.leftTrenchOpenEnd,
+        LinesHorizontal.leftTrenchOpenStart);
+    setBounds(
+        Zone.LEFT_TRENCH_FAR,
+        farStarting - offset,
+        LinesVertical.neutralZoneFar + offset,
+        LinesHorizontal.leftTrenchOpenEnd,
+        LinesHorizontal.leftTrenchOpenStart);
+    setBounds(
+        Zone.RIGHT_TRENCH_NEAR,
+        LinesVertical.starting - offset,
+        LinesVertical.neutralZoneNear + offset,
+        LinesHorizontal.rightTrenchOpenEnd,
+        LinesHorizontal.rightTrenchOpenStart);
+    setBounds(
+        Zone.RIGHT_TRENCH_FAR,
+        farStarting - offset,
+        LinesVertical.neutralZoneFar + offset,
+        LinesHorizontal.rightTrenchOpenEnd,
+        LinesHorizontal.rightTrenchOpenStart);
+
+    entryGrid.build(0);
+    exitGrid.build(hysteresis.get());
+
+    Rectangle2d[] bounds = new Rectangle2d[zoneCount];
+    for (Zone zone : Zone.values()) {
+      bounds[zone.ordinal()] = getBounds(zone);
+    }
+    Logger.recordOutput("FieldZones/Bounds", bounds);
+  }
+
+  /** Set the bounds of a zone. The corners may be passed in any order. */
+  private void setBounds(Zone zone, double x1, double x2, double y1, double y2) {
+    int i = zone.ordinal();
+    minX[i] = Math.min(x1, x2);
+    maxX[i] = Math.max(x1, x2);
+    minY[i] = Math.min(y1, y2);
+    maxY[i] = Math.max(y1, y2);
+  }
+
+  private static double[] sortedEdges(double[] mins, double[] maxes, double grow) {
+    double[] edges = new double[zoneCount * 2];
+    for (int i = 0; i < zoneCount; i++) {
+      edges[2 * i] = mins[i] - grow;
+      edges[2 * i + 1] = maxes[i] + grow;
+    }
+    return Arrays.stream(edges).sorted().distinct().toArray();
+  }
+
+  /** Slab test of the segment from (x, y) to (x + dx, y + dy) against an axis aligned box. */
+  private static boolean segmentIntersectsBox(
+      double x,
+      double y,
+      double dx,
+      double dy,
+      double boxMinX,
+      double boxMaxX,
+      double boxMinY,
+      double boxMaxY) {
+    double tEnter = 0;
+    double tExit = 1;
+    if (Math.abs(dx) < 1e-9) {
+      if (x < boxMinX || x > boxMaxX) return false;
+    } else {
+      double t1 = (boxMinX - x) / dx;
+      double t2 = (boxMaxX - x) / dx;
+      tEnter = Math.max(tEnter, Math.min(t1, t2));
+      tExit = Math.min(tExit, Math.max(t1, t2));
+      if (tEnter > tExit) return false;
+    }
+    if (Math.abs(dy) < 1e-9) {
+      if (y < boxMinY || y > boxMaxY) return false;
+    } else {
+      double t1 = (boxMinY - y) / dy;
+      double t2 = (boxMaxY - y) / dy;
+      tEnter = Math.max(tEnter, Math.min(t1, t2));
+      tExit = Math.min(tExit, Math.max(t1, t2));
+      if (tEnter > tExit) return false;
+    }
+    return true;
+  }
+
+  /** The number of edges less than or equal to the value. */
+  private static int cellIndex(double[] edges, double value) {
+    int low = 0;
+    int high = edges.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (edges[mid] <= value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * A grid of cells split at every zone edge. Each cell stores the mask of zones covering it.
+   *
+   * <p>Cell {@code i} along an axis spans {@code [edges[i - 1], edges[i])}; cell 0 and the last
+   * cell are outside of every zone.
+   */
+  private class ZoneGrid {
+    private double[] xEdges = new double[0];
+    private double[] yEdges = new double[0];
+    private int[] cells = new int[1];
+
+    private void build(double grow) {
+      xEdges = sortedEdges(minX, maxX, grow);
+      yEdges = sortedEdges(minY, maxY, grow);
+      int columns = xEdges.length + 1;
+      cells = new int[columns * (yEdges.length + 1)];
+      for (int cx = 1; cx < xEdges.length; cx++) {
+        for (int cy = 1; cy < yEdges.length; cy++) {
+          int mask = 0;
+          for (int zone = 0; zone < zoneCount; zone++) {
+            if (minX[zone] - grow <= xEdges[cx - 1]
+                && maxX[zone] + grow >= xEdges[cx]
+                && minY[zone] - grow <= yEdges[cy - 1]
+                && maxY[zone] + grow >= yEdges[cy]) {
+              mask |= 1 << zone;
+            }
+          }
+          cells[cy * columns + cx] = mask;
+        }
+      }
+    }
+
+    private int lookup(double x, double y) {
+      return cells[cellIndex(yEdges, y) * (xEdges.length + 1) + cellIndex(xEdges, x)];
+    }
+  }
+}
@@ -7,8 +7,10 @@ import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.generic.util.LogKeys;
 import frc.robot.generic.util.LoggedDIO.LoggedDIO;
 import frc.robot.generic.util.LoggedTalon.TalonFX.LoggedTalonFX;
+import frc.robot.generic.util.LoopProfiler;
 import java.util.function.DoubleSupplier;
 import java.util.function.Supplier;
 import lombok.Getter;
@@ -16,7 +18,11 @@ import lombok.Setter;
 import org.littletonrobotics.junction.Logger;
 
 public class GenericPositionMechanismSubsystem extends SubsystemBase {
-  private final String name;
+  private final int periodicSlot;
+  private final String atSetpointKey;
+  private final String homedKey;
+  private final String positionControlKey;
+  private final String targetKey;
 
   protected final LoggedTalonFX motor;
   protected final LoggedDIO reverseLimit;
@@ -46,7 +52,12 @@ public class GenericPositionMechanismSubsystem extends SubsystemBase {
       Supplier<Angle> homingSwitchPosition,
       Supplier<Angle> homingConfirmPosition,
       Supplier<Angle> tolerance) {
-    this.name = name;
+    this.periodicSlot = LoopProfiler.register(name + "/Periodic");
+    LogKeys keys = LogKeys.of(name);
+    this.atSetpointKey = keys.key("AtSetpoint");
+    this.homedKey = keys.key("Homed");
+    this.positionControlKey = keys.key("PositionControl");
+    this.targetKey = keys.key("Target");
     this.motor = motor;
     this.reverseLimit = reverseLimit.withReversed(true);
     this.forwardLimit = forwardLimit.withReversed(true);
@@ -118,17 +129,19 @@ public class GenericPositionMechanismSubsystem extends SubsystemBase {
 
   @Override
   public final void periodic() {
+    long start = LoopProfiler.start();
     motor.periodic();
     reverseLimit.periodic();
     forwardLimit.periodic();
     atSetpoint = motor.atSetpoint(targetPosition.getMeasure(), tolerance.get());
-    Logger.recordOutput(name + "/AtSetpoint", atSetpoint);
-    Logger.recordOutput(name + "/Homed", homed);
-    Logger.recordOutput(name + "/PositionControl", positionControl);
-    Logger.recordOutput(name + "/Target", targetPosition);
+    Logger.recordOutput(atSetpointKey, atSetpoint);
+    Logger.recordOutput(homedKey, homed);
+    Logger.recordOutput(positionControlKey, positionControl);
+    Logger.recordOutput(targetKey, targetPosition);
 
     periodicUser();
     setControl();
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   protected void periodicUser() {}
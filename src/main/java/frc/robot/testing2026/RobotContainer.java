@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.Constants;
 import frc.robot.generic.Robot;
 import frc.robot.generic.commands.DriveCommands;
+import frc.robot.generic.sim.AutoEvaluation;
 import frc.robot.generic.subsystems.drive.Drive;
 import frc.robot.generic.subsystems.vision.Vision;
 import frc.robot.generic.subsystems.vision.VisionConstants;
@@ -59,7 +60,9 @@ public class RobotContainer implements AbstractRobotContainer {
             new Vision(
                 drive::addVisionMeasurement,
                 new VisionIOPhotonVisionSim(
-                    VisionConstants.camera0Name, VisionConstants.robotToCamera0, drive::getPose));
+                    VisionConstants.camera0Name,
+                    VisionConstants.robotToCamera0,
+                    AutoEvaluation.truePose(drive::getPose)));
       }
       default -> {
         vision = new Vision(drive::addVisionMeasurement, new VisionIO() {});
@@ -2,6 +2,7 @@ package frc.robot.testing2026.subsystems.shooter;
 
 import static edu.wpi.first.units.Units.RPM;
 import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.RotationsPerSecondPerSecond;
 
 import com.ctre.phoenix6.configs.FeedbackConfigs;
 import com.ctre.phoenix6.configs.MotorOutputConfigs;
@@ -11,22 +12,30 @@ import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
 import com.ctre.phoenix6.signals.InvertedValue;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.MutAngularVelocity;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.generic.util.LoggedTalon.MechanismStateEstimator;
 import frc.robot.generic.util.LoggedTalon.TalonFX.LoggedTalonFX;
 import frc.robot.generic.util.LoggedTunableMeasure;
+import frc.robot.generic.util.LoopProfiler;
+import frc.robot.testing2026.subsystems.shooter.FlywheelReadiness.ShotReadiness;
 import java.util.function.DoubleSupplier;
 import lombok.Getter;
 import org.littletonrobotics.junction.AutoLogOutput;
 
 public class Flywheel extends SubsystemBase {
+  private static final double peakTorqueCurrent = 40;
 
   private final LoggedTalonFX motor;
+  private final int periodicSlot = LoopProfiler.register("Flywheel/Periodic");
 
   private final VelocityTorqueCurrentFOC control = new VelocityTorqueCurrentFOC(0);
   @Getter @AutoLogOutput private boolean atSetpoint = false;
   private final LoggedTunableMeasure<MutAngularVelocity> tolerance =
       new LoggedTunableMeasure<>("Flywheel/Tolerance", RPM.mutable(5));
+  private final FlywheelReadiness readinessModel = new FlywheelReadiness(peakTorqueCurrent);
+  @Getter private ShotReadiness readiness = readinessModel.getReadiness();
 
   public Flywheel(LoggedTalonFX motor) {
     this.motor = motor;
@@ -34,7 +43,7 @@ public class Flywheel extends SubsystemBase {
         LoggedTalonFX.buildStandardConfig(80, 60)
             .withTorqueCurrent(
                 new TorqueCurrentConfigs()
-                    .withPeakForwardTorqueCurrent(40)
+                    .withPeakForwardTorqueCurrent(peakTorqueCurrent)
                     .withPeakReverseTorqueCurrent(0))
             .withMotorOutput(
                 new MotorOutputConfigs().withInverted(InvertedValue.Clockwise_Positive))
@@ -47,7 +56,10 @@ public class Flywheel extends SubsystemBase {
                     .withKS(1.5)
                     .withKV(0.05)
                     .withKA(0));
-    motor.withConfig(config).withPIDTunable(config.Slot0);
+    motor
+        .withConfig(config)
+        .withPIDTunable(config.Slot0)
+        .withStateEstimator(MechanismStateEstimator.velocity(0.5, 200, 0.5, 0.02));
     setDefaultCommand(aimCommand());
   }
 
@@ -70,10 +82,30 @@ public class Flywheel extends SubsystemBase {
         });
   }
 
+  /**
+   * Check if a ball fed now would leave at speed, using the learned recovery after each shot.
+   *
+   * @param minConfidence the minimum confidence in the prediction, from 0 to 1
+   * @return if the shot is ready
+   */
+  public boolean isReadyToShoot(double minConfidence) {
+    return readiness.ready() && readiness.confidence() >= minConfidence;
+  }
+
   @Override
   public void periodic() {
+    long start = LoopProfiler.start();
     motor.periodic();
     atSetpoint = motor.atSetpoint(control.getVelocityMeasure(), tolerance.get());
+    readiness =
+        readinessModel.update(
+            Timer.getTimestamp(),
+            control.Velocity,
+            motor.getFilteredVelocity().in(RotationsPerSecond),
+            motor.getFilteredAcceleration().in(RotationsPerSecondPerSecond),
+            motor.getPrimaryTorqueCurrentAmps(),
+            tolerance.get().in(RotationsPerSecond));
     ShotCalculator.getInstance().clearCache();
+    LoopProfiler.stop(periodicSlot, start);
   }
 }
@@ -0,0 +1,203 @@
+package frc.robot.testing2026.subsystems.shooter;
+
+import frc.robot.generic.replay.ReplaySummary;
+import frc.robot.generic.util.LoggedTunableNumber;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Learns how the flywheel dips and recovers after each ball, and predicts when the next shot will
+ * be at speed.
+ *
+ * <p>Ball detection is armed once the flywheel reaches a positive setpoint, and disarmed when the
+ * setpoint is dropped or changes faster than a ball could explain. While armed, a ball is detected
+ * as a deceleration or current spike with the velocity dropping out of tolerance, so spinning up
+ * is never mistaken for a shot. The recovery back into tolerance is modeled as an exponential decay
+ * of the error, with a time constant learned from every completed recovery. While the motor is
+ * current limited, the recovery can't be faster than the learned acceleration per amp at the peak
+ * current allows, so the prediction is the slower of the two.
+ *
+ * <p>A shot is ready when the flywheel is in tolerance, or is below the setpoint and predicted to
+ * be in tolerance by the time the ball reaches it, so feeding can start before the speed has fully
+ * recovered. It is never ready without a positive setpoint, or while the flywheel is above the
+ * setpoint, since it can only coast down and a ball fed early would go long.
+ */
+public class FlywheelReadiness {
+  /**
+   * @param ready if a ball fed now would leave at speed
+   * @param timeToReadySeconds the predicted time until the flywheel is in tolerance. 0 if it is,
+   *     a lower bound while coasting down from above the setpoint, and infinite without a positive
+   *     setpoint
+   * @param confidence how much to trust the prediction, from 0 to 1. 1 when the flywheel is
+   *     measured in tolerance, 0 above the setpoint, otherwise grows as recoveries are learned and
+   *     agree with each other
+   */
+  public record ShotReadiness(boolean ready, double timeToReadySeconds, double confidence) {}
+
+  private final LoggedTunableNumber feedLatency =
+      new LoggedTunableNumber("Flywheel/Readiness/FeedLatency", 0.06, "s");
+  /** A deceleration sharper than this, with the velocity dropping out of tolerance, is a ball */
+  private final LoggedTunableNumber ballDeceleration =
+      new LoggedTunableNumber("Flywheel/Readiness/BallDeceleration", 50, "rot/s^2");
+  /** A torque current above this, with the velocity dropping out of tolerance, is a ball */
+  private final LoggedTunableNumber ballCurrent =
+      new LoggedTunableNumber("Flywheel/Readiness/BallCurrent", 30, "A");
+  /** Setpoint changes faster than this disarm ball detection until the flywheel catches up */
+  private final LoggedTunableNumber maxSetpointRate =
+      new LoggedTunableNumber("Flywheel/Readiness/MaxSetpointRate", 20, "rot/s^2");
+  private final LoggedTunableNumber defaultTimeConstant =
+      new LoggedTunableNumber("Flywheel/Readiness/DefaultTimeConstant", 0.15, "s");
+  private final LoggedTunableNumber learningRate =
+      new LoggedTunableNumber("Flywheel/Readiness/LearningRate", 0.2);
+  /** Current above which a recovery sample is used to learn acceleration per amp */
+  private final LoggedTunableNumber minLearningCurrent =
+      new LoggedTunableNumber("Flywheel/Readiness/MinLearningCurrent", 5, "A");
+
+  private final double peakCurrentAmps;
+
+  /* Learned model */
+  private double timeConstant = Double.NaN;
+  private double timeConstantVariance = 0;
+  private double accelerationPerAmp = Double.NaN;
+  private int learnedRecoveries = 0;
+
+  /* Current dip */
+  private boolean armed = false;
+  private boolean recovering = false;
+  private double peakError = 0;
+  private double peakTimestamp = 0;
+  private double lastSetpoint = Double.NaN;
+  private double lastTimestamp = Double.NaN;
+
+  private ShotReadiness readiness = new ShotReadiness(false, 0, 0);
+
+  /**
+   * @param peakCurrentAmps the forward torque current limit of the flywheel
+   */
+  public FlywheelReadiness(double peakCurrentAmps) {
+    this.peakCurrentAmps = peakCurrentAmps;
+  }
+
+  /**
+   * Update the model with the latest measurements and predict readiness.
+   *
+   * @param timestampSeconds the time of the measurements
+   * @param setpointRotPS the velocity setpoint
+   * @param velocityRotPS the (filtered) velocity
+   * @param accelerationRotPS2 the (filtered) acceleration
+   * @param torqueCurrentAmps the torque current
+   * @param toleranceRotPS the at speed tolerance
+   * @return the readiness
+   */
+  public ShotReadiness update(
+      double timestampSeconds,
+      double setpointRotPS,
+      double velocityRotPS,
+      double accelerationRotPS2,
+      double torqueCurrentAmps,
+      double toleranceRotPS) {
+    double error = setpointRotPS - velocityRotPS;
+    double dt = timestampSeconds - lastTimestamp;
+    boolean slowSetpoint =
+        dt > 0 && Math.abs(setpointRotPS - lastSetpoint) <= maxSetpointRate.get() * dt;
+    lastSetpoint = setpointRotPS;
+    lastTimestamp = timestampSeconds;
+
+    if (setpointRotPS <= 0 || !slowSetpoint) {
+      // A new setpoint isn't a ball, and says nothing about the recovery after one
+      armed = false;
+      recovering = false;
+    } else if (!armed) {
+      // Wait for the flywheel to reach the setpoint, so spinning up isn't counted as a ball
+      armed = Math.abs(error) <= toleranceRotPS;
+    } else if (!recovering) {
+      boolean spike =
+          accelerationRotPS2 < -ballDeceleration.get() || torqueCurrentAmps > ballCurrent.get();
+      if (spike && error > toleranceRotPS) {
+        ReplaySummary.recordShot(readiness.ready());
+        recovering = true;
+        peakError = error;
+        peakTimestamp = timestampSeconds;
+      }
+    } else if (error > peakError) {
+      // Still dipping
+      peakError = error;
+      peakTimestamp = timestampSeconds;
+    } else if (error <= toleranceRotPS) {
+      double decay = Math.log(peakError / Math.max(toleranceRotPS, 1e-6));
+      learnTimeConstant((timestampSeconds - peakTimestamp) / decay);
+      recovering = false;
+    } else if (torqueCurrentAmps > minLearningCurrent.get() && accelerationRotPS2 > 0) {
+      accelerationPerAmp = blend(accelerationPerAmp, accelerationRotPS2 / torqueCurrentAmps);
+    }
+
+    double timeToReady = 0;
+    double confidence = 1;
+    if (setpointRotPS <= 0) {
+      timeToReady = Double.POSITIVE_INFINITY;
+      confidence = 0;
+    } else if (error < -toleranceRotPS) {
+      // Too fast. The flywheel can only coast down, and friction fades as it slows, so the current
+      // deceleration only gives a lower bound on the time to get back in tolerance
+      timeToReady =
+          accelerationRotPS2 < 0
+              ? (-error - toleranceRotPS) / -accelerationRotPS2
+              : Double.POSITIVE_INFINITY;
+      confidence = 0;
+    } else if (error > toleranceRotPS) {
+      double tau = Double.isNaN(timeConstant) ? defaultTimeConstant.get() : timeConstant;
+      timeToReady = tau * Math.log(error / Math.max(toleranceRotPS, 1e-6));
+      if (!Double.isNaN(accelerationPerAmp) && accelerationPerAmp > 0) {
+        double slewTime = (error - toleranceRotPS) / (accelerationPerAmp * peakCurrentAmps);
+        timeToReady = Math.max(timeToReady, slewTime);
+      }
+      confidence = modelConfidence();
+    }
+    // Above the setpoint a ball would go long, and the coast-down estimate is too optimistic to
+    // feed early on
+    boolean ready = error >= -toleranceRotPS && timeToReady <= feedLatency.get();
+    readiness = new ShotReadiness(ready, timeToReady, confidence);
+
+    Logger.recordOutput("Flywheel/Readiness/Shot", readiness);
+    Logger.recordOutput("Flywheel/Readiness/Armed", armed);
+    Logger.recordOutput("Flywheel/Readiness/Recovering", recovering);
+    Logger.recordOutput("Flywheel/Readiness/TimeConstant", timeConstant, "s");
+    Logger.recordOutput("Flywheel/Readiness/AccelerationPerAmp", accelerationPerAmp);
+    Logger.recordOutput("Flywheel/Readiness/LearnedRecoveries", learnedRecoveries);
+    return readiness;
+  }
+
+  private void learnTimeConstant(double sample) {
+    if (!(sample > 0) || Double.isInfinite(sample)) {
+      return;
+    }
+    if (Double.isNaN(timeConstant)) {
+      timeConstant = sample;
+    } else {
+      double rate = learningRate.get();
+      double deviation = sample - timeConstant;
+      timeConstant += rate * deviation;
+      timeConstantVariance = (1 - rate) * (timeConstantVariance + rate * deviation * deviation);
+    }
+    learnedRecoveries++;
+  }
+
+  private double blend(double current, double sample) {
+    return Double.isNaN(current) ? sample : current + learningRate.get() * (sample - current);
+  }
+
+  /** Grows with the number of recoveries learned, and shrinks when they disagree. */
+  private double modelConfidence() {
+    if (learnedRecoveries == 0) {
+      return 0;
+    }
+    double coefficientOfVariation = Math.sqrt(timeConstantVariance) / timeConstant;
+    return learnedRecoveries / (learnedRecoveries + 3.0) / (1 + coefficientOfVariation);
+  }
+
+  /**
+   * @return the latest readiness
+   */
+  public ShotReadiness getReadiness() {
+    return readiness;
+  }
+}
@@ -14,13 +14,14 @@ import com.ctre.phoenix6.configs.TalonFXSConfiguration;
 import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.controls.MotionMagicDutyCycle;
 import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.PositionDutyCycle;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.MotorArrangementValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.geometry.Pose2d;
-import edu.wpi.first.math.geometry.Rectangle2d;
 import edu.wpi.first.math.geometry.Rotation2d;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.MutAngle;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -30,11 +31,13 @@ import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.button.Trigger;
 import frc.robot.generic.RobotState;
+import frc.robot.generic.util.LogTier;
 import frc.robot.generic.util.LoggedTalon.TalonFXS.LoggedTalonFXS;
 import frc.robot.generic.util.LoggedTunableMeasure;
 import frc.robot.generic.util.LoggedTunableNumber;
-import frc.robot.testing2026.FieldConstants.LinesHorizontal;
-import frc.robot.testing2026.FieldConstants.LinesVertical;
+import frc.robot.generic.util.LoopProfiler;
+import frc.robot.generic.util.MechanismUtil;
+import frc.robot.testing2026.FieldZones;
 import java.util.function.Supplier;
 import lombok.Getter;
 import lombok.Setter;
@@ -44,16 +47,23 @@ import org.littletonrobotics.junction.Logger;
 public class Hood extends SubsystemBase {
   /* Hardware */
   private final LoggedTalonFXS motor;
+  private final int periodicSlot = LoopProfiler.register("Hood/Periodic");
 
   /* Movement Constants */
   private final LoggedTunableMeasure<MutAngle> downPosition =
       new LoggedTunableMeasure<>("Hood/DownPosition", Degrees.mutable(18.575));
   private final LoggedTunableMeasure<MutAngle> stowPosition =
       new LoggedTunableMeasure<>("Hood/StowAngle", Degrees.mutable(15));
-  public static LoggedTunableNumber stowTrenchGapOffset =
-      new LoggedTunableNumber("Hood/stowTrenchGapOffset", 0, "m");
   private final LoggedTunableMeasure<MutAngle> tolerance =
       new LoggedTunableMeasure<>("Hood/Tolerance", Degrees.mutable(5));
+  /** Within this of the target, the hood tracks with velocity feedforward instead of profiling */
+  private final LoggedTunableMeasure<MutAngle> trackingWindow =
+      new LoggedTunableMeasure<>("Hood/TrackingWindow", Degrees.mutable(3));
+  /* Predictive stow */
+  private final LoggedTunableNumber stowLeadTime =
+      new LoggedTunableNumber("Hood/Stow/LeadTime", 0.1, "s");
+  private final LoggedTunableNumber stowFootprintRadius =
+      new LoggedTunableNumber("Hood/Stow/FootprintRadius", 0.4, "m");
   /* Homing */
   private final LoggedTunableNumber homingVoltage =
       new LoggedTunableNumber("Hood/Homing/Voltage", 4, "v");
@@ -71,16 +81,18 @@ public class Hood extends SubsystemBase {
   @AutoLogOutput private boolean positionControl = false;
   @AutoLogOutput @Setter private boolean homed = true;
   @AutoLogOutput @Getter private boolean atSetpoint = false;
-  @AutoLogOutput private Rectangle2d[] trenchAreas = new Rectangle2d[4];
 
   /* Control  Requests*/
   private final NeutralOut neutralControl = new NeutralOut();
   private final MotionMagicDutyCycle mmControl = new MotionMagicDutyCycle(targetPosition);
+  private final PositionDutyCycle trackingControl = new PositionDutyCycle(targetPosition);
   private final DutyCycleOut dutyCycleOut = new DutyCycleOut(0);
 
+  /** The applied motion magic config. Tuning mutates this in place, so it is always current. */
+  private final MotionMagicConfigs mmConfig;
+
   public Hood(LoggedTalonFXS motor) {
     this.motor = motor;
-    updateTrenchAreas();
     var config =
         new TalonFXSConfiguration()
             .withCommutation(
@@ -99,6 +111,7 @@ public class Hood extends SubsystemBase {
     // 12t pulley -> 24t, 10t gear -> 180t spur gear
     // 2:1 * 18:1 = 36:1 overall
     motor.withConfig(config).withMMPIDTuning(SlotConfigs.from(config.Slot0), config.MotionMagic);
+    mmConfig = config.MotionMagic;
     setDefaultCommand(aimCommand());
     new Trigger(this::shouldStow).whileTrue(stowCommand());
 
@@ -109,7 +122,8 @@ public class Hood extends SubsystemBase {
     return run(
         () -> {
           if (homed) {
-            this.requestAngle(ShotCalculator.getInstance().calculateShot().hoodAngle());
+            var shot = ShotCalculator.getInstance().calculateShot();
+            this.trackAngle(shot.hoodAngle(), shot.hoodVelocityRadPerSec());
           }
         });
   }
@@ -153,6 +167,30 @@ public class Hood extends SubsystemBase {
     motor.setControl(mmControl.withPosition(targetPosition));
   }
 
+  /**
+   * Follow a moving target angle. Within the tracking window the hood is held on the target with
+   * position control plus velocity feedforward, otherwise it moves there with motion magic.
+   *
+   * @param angle the target angle relative to vertical. 0 is vertical, 90 is horizontal
+   * @param velocityRadPerSec the rate of change of the target angle
+   */
+  public void trackAngle(Rotation2d angle, double velocityRadPerSec) {
+    angleToPosition(angle, targetPosition);
+    boolean tracking =
+        Math.abs(targetPosition.baseUnitMagnitude() - motor.getPosition().baseUnitMagnitude())
+            <= trackingWindow.get().baseUnitMagnitude();
+    Logger.recordOutput("Hood/RequestedAngle", angle.getDegrees(), "deg");
+    Logger.recordOutput("Hood/Tracking", tracking);
+    if (tracking) {
+      motor.setControl(
+          trackingControl
+              .withPosition(targetPosition)
+              .withVelocity(Units.radiansToRotations(velocityRadPerSec)));
+    } else {
+      motor.setControl(mmControl.withPosition(targetPosition));
+    }
+  }
+
   /**
    * A command that commands the Turret to move to a angle. This command ends when the setpoint is
    * archived
@@ -172,56 +210,74 @@ public class Hood extends SubsystemBase {
         this);
   }
 
+  /**
+   * Check if the hood should be stowed. This is true when the robot is in a trench, or when the
+   * robot footprint, swept forward along its current velocity for as long as the hood needs to
+   * stow, would reach a trench.
+   *
+   * @return if the hood should be stowed
+   */
   public boolean shouldStow() {
-    boolean shouldStow = false;
-    final Pose2d pose = RobotState.getInstance().getRobotPosition();
-    for (int i = 0; i < trenchAreas.length; i++) {
-      if (trenchAreas[i].contains(pose.getTranslation())) {
-        shouldStow = true;
-        break;
-      }
-    }
+    boolean inTrench = FieldZones.getInstance().isInAny(FieldZones.trenches);
+    boolean predicted = !inTrench && trenchPredicted();
+    boolean shouldStow = inTrench || predicted;
     Logger.recordOutput("Hood/ShouldStow", shouldStow);
+    Logger.recordOutput("Hood/Stow/Predicted", predicted);
     return shouldStow;
   }
 
-  private void updateTrenchAreas() {
-    double offset = stowTrenchGapOffset.get();
-    trenchAreas =
-        new Rectangle2d[] {
-          new Rectangle2d(
-              new Translation2d(
-                  LinesVertical.starting - offset, LinesHorizontal.leftTrenchOpenStart),
-              new Translation2d(
-                  LinesVertical.neutralZoneNear + offset, LinesHorizontal.leftTrenchOpenEnd)),
-          new Rectangle2d(
-              new Translation2d(
-                  (2 * LinesVertical.center) - LinesVertical.starting - offset,
-                  LinesHorizontal.leftTrenchOpenStart),
-              new Translation2d(
-                  LinesVertical.neutralZoneFar + offset, LinesHorizontal.leftTrenchOpenEnd)),
-          new Rectangle2d(
-              new Translation2d(
-                  LinesVertical.starting - offset, LinesHorizontal.rightTrenchOpenStart),
-              new Translation2d(
-                  LinesVertical.neutralZoneNear + offset, LinesHorizontal.rightTrenchOpenEnd)),
-          new Rectangle2d(
-              new Translation2d(
-                  (2 * LinesVertical.center) - LinesVertical.starting - offset,
-                  LinesHorizontal.rightTrenchOpenStart),
-              new Translation2d(
-                  LinesVertical.neutralZoneFar + offset, LinesHorizontal.rightTrenchOpenEnd))
-        };
+  /**
+   * Project the robot forward by the stow time and check the swept footprint against the trenches.
+   * This does not allocate.
+   */
+  private boolean trenchPredicted() {
+    final RobotState.Snapshot state = RobotState.getInstance().getSnapshot();
+    final Pose2d pose = state.pose();
+    final ChassisSpeeds speeds = state.robotRelativeVelocity();
+    // Rotate robot relative velocity into the field frame
+    double cos = pose.getRotation().getCos();
+    double sin = pose.getRotation().getSin();
+    double vx = speeds.vxMetersPerSecond * cos - speeds.vyMetersPerSecond * sin;
+    double vy = speeds.vxMetersPerSecond * sin + speeds.vyMetersPerSecond * cos;
+
+    double lookahead = stowTimeSeconds() + stowLeadTime.get();
+    Logger.recordOutput("Hood/Stow/Lookahead", lookahead, "s");
+    return FieldZones.getInstance()
+        .sweepIntersects(
+            FieldZones.trenches,
+            pose.getX(),
+            pose.getY(),
+            vx * lookahead,
+            vy * lookahead,
+            stowFootprintRadius.get());
+  }
+
+  /**
+   * The time the motion magic profile needs to move from the current state to the stow position.
+   *
+   * @return the stow time in seconds
+   */
+  private double stowTimeSeconds() {
+    double stowRadians =
+        stowPosition.get().baseUnitMagnitude() - downPosition.get().baseUnitMagnitude();
+    return MechanismUtil.motionMagicTime(
+        Units.radiansToRotations(stowRadians - motor.getPosition().baseUnitMagnitude()),
+        Units.radiansToRotations(motor.getVelocity().baseUnitMagnitude()),
+        mmConfig.MotionMagicCruiseVelocity,
+        mmConfig.MotionMagicAcceleration);
   }
 
   @Override
   public final void periodic() {
+    long start = LoopProfiler.start();
     motor.periodic();
     atSetpoint = motor.atSetpoint(targetPosition, tolerance.get());
-    Logger.recordOutput("Hood/Angle", positionToAngle(motor.getPosition()).getDegrees(), "deg");
+    if (LogTier.DEBUG.isEnabled()) {
+      Logger.recordOutput("Hood/Angle", positionToAngle(motor.getPosition()).getDegrees(), "deg");
+    }
 
     ShotCalculator.getInstance().clearCache();
-    LoggedTunableNumber.ifChanged(this, (value) -> this.updateTrenchAreas(), stowTrenchGapOffset);
+    LoopProfiler.stop(periodicSlot, start);
   }
 
   /**
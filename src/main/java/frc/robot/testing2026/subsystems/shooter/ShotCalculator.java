@@ -11,12 +11,12 @@ import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
-import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.interpolation.InterpolatingDoubleTreeMap;
 import edu.wpi.first.math.interpolation.InterpolatingTreeMap;
 import edu.wpi.first.math.interpolation.InverseInterpolator;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.Timer;
 import frc.robot.generic.RobotState;
 import frc.robot.generic.util.AllianceFlipUtil;
 import frc.robot.testing2026.FieldConstants;
@@ -50,11 +50,24 @@ public class ShotCalculator {
   private Rotation2d turretAngle;
   private Rotation2d hoodAngle = Rotation2d.kZero;
 
+  /**
+   * @param isValid if the target is within shooting range
+   * @param turretAngle the robot relative turret angle
+   * @param hoodAngle the hood angle, relative to vertical
+   * @param flywheelSpeedRotPerSec the flywheel speed
+   * @param turretVelocityRadPerSec the rate of change of {@code turretAngle}, for feedforward
+   * @param turretAccelerationRadPerSec2 the rate of change of {@code turretVelocityRadPerSec},
+   *     assuming the chassis velocity is held constant
+   * @param hoodVelocityRadPerSec the rate of change of {@code hoodAngle}, for feedforward
+   */
   public record ShotParameters(
       boolean isValid,
       Rotation2d turretAngle,
       Rotation2d hoodAngle,
-      double flywheelSpeedRotPerSec) {}
+      double flywheelSpeedRotPerSec,
+      double turretVelocityRadPerSec,
+      double turretAccelerationRadPerSec2,
+      double hoodVelocityRadPerSec) {}
 
   // Cache parameters
   private ShotParameters latestShot = null;
@@ -62,6 +75,8 @@ public class ShotCalculator {
   private static final double minDistance;
   private static final double maxDistance;
   private static final double phaseDelay;
+  /** Distance step for the numerical slope of the hood angle map */
+  private static final double hoodSlopeStep = 0.05;
   private static final InterpolatingTreeMap<Double, Rotation2d> shotHoodAngleMap =
       new InterpolatingTreeMap<>(InverseInterpolator.forDouble(), Rotation2d::interpolate);
   private static final InterpolatingDoubleTreeMap shotFlywheelSpeedMap =
@@ -105,20 +120,18 @@ public class ShotCalculator {
       return latestShot;
     }
 
-    // Calculate estimated pose while accounting for phase delay
-    Pose2d estimatedPose = RobotState.getInstance().getRobotPosition();
-    ChassisSpeeds robotRelativeVelocity = RobotState.getInstance().getRobotRelativeVelocity();
+    // Calculate estimated pose while accounting for the measured pose age and phase delay
+    RobotState.Snapshot state = RobotState.getInstance().getSnapshot();
+    ChassisSpeeds robotRelativeVelocity = state.robotRelativeVelocity();
+    double poseAge = Math.max(0, Timer.getTimestamp() - state.timestampSeconds());
+    Logger.recordOutput("ShotCalculator/PoseAge", poseAge, "s");
+    Pose2d estimatedPose = RobotState.getInstance().predictPose(poseAge + phaseDelay);
     ChassisSpeeds robotVelocity =
         ChassisSpeeds.fromRobotRelativeSpeeds(robotRelativeVelocity, estimatedPose.getRotation());
-    estimatedPose =
-        estimatedPose.exp(
-            new Twist2d(
-                robotRelativeVelocity.vxMetersPerSecond * phaseDelay,
-                robotRelativeVelocity.vyMetersPerSecond * phaseDelay,
-                robotRelativeVelocity.omegaRadiansPerSecond * phaseDelay));
 
     // Calculate distance from turret to target
-    Translation2d target = AllianceFlipUtil.apply(RobotState.getInstance().updateGoal().pose);
+    Goal goal = state.goal() == null ? Goal.HUB : state.goal();
+    Translation2d target = AllianceFlipUtil.apply(goal.pose);
     Logger.recordOutput("ShotCalculator/Target", new Pose2d(target, Rotation2d.kZero));
     Pose2d turretPosition = estimatedPose.transformBy(robotToTurret);
     double turretToTargetDistance = target.getDistance(turretPosition.getTranslation());
@@ -159,13 +172,36 @@ public class ShotCalculator {
             .minus(lookaheadPose.getRotation())
             .plus(Rotation2d.k180deg);
     hoodAngle = shotHoodAngleMap.get(lookaheadTurretToTargetDistance);
+
+    // Feedforward. The target moves relative to the turret opposite to the turret velocity, so
+    // the field relative bearing to it turns at (dy * vx - dx * vy) / r^2. The turret is robot
+    // relative, so the chassis rotation is subtracted. With a constant chassis velocity, the
+    // numerator is constant and the bearing rate only changes through r^2.
+    double dx = target.getX() - lookaheadPose.getX();
+    double dy = target.getY() - lookaheadPose.getY();
+    double distanceSquared = Math.max(dx * dx + dy * dy, 1e-6);
+    double closingRate = dx * turretVelocityX + dy * turretVelocityY;
+    double bearingRate = (dy * turretVelocityX - dx * turretVelocityY) / distanceSquared;
+    double turretVelocity = bearingRate - robotVelocity.omegaRadiansPerSecond;
+    double turretAcceleration = bearingRate * 2 * closingRate / distanceSquared;
+    double distanceRate = -closingRate / Math.sqrt(distanceSquared);
+    double hoodSlope =
+        shotHoodAngleMap
+                .get(lookaheadTurretToTargetDistance + hoodSlopeStep)
+                .minus(shotHoodAngleMap.get(lookaheadTurretToTargetDistance - hoodSlopeStep))
+                .getRadians()
+            / (2 * hoodSlopeStep);
+
     latestShot =
         new ShotParameters(
             lookaheadTurretToTargetDistance >= minDistance
                 && lookaheadTurretToTargetDistance <= maxDistance,
             turretAngle,
             hoodAngle,
-            shotFlywheelSpeedMap.get(lookaheadTurretToTargetDistance));
+            shotFlywheelSpeedMap.get(lookaheadTurretToTargetDistance),
+            turretVelocity,
+            turretAcceleration,
+            hoodSlope * distanceRate);
 
     // Log calculated values
     Logger.recordOutput("ShotCalculator/LatestShot", latestShot);
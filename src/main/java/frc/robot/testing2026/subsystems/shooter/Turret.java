@@ -12,6 +12,7 @@ import com.ctre.phoenix6.configs.SlotConfigs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.MotionMagicDutyCycle;
 import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.controls.PositionDutyCycle;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.MathUtil;
@@ -22,17 +23,23 @@ import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.MutAngle;
+import edu.wpi.first.wpilibj.Alert;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.FunctionalCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.generic.RobotState;
+import frc.robot.generic.util.AbsoluteOffsetEstimator;
+import frc.robot.generic.util.LogTier;
 import frc.robot.generic.util.LoggedAnalogInput.LoggedAnalogInput;
 import frc.robot.generic.util.LoggedDIO.LoggedDIO;
 import frc.robot.generic.util.LoggedDIO.SimDIO;
 import frc.robot.generic.util.LoggedTalon.TalonFX.LoggedTalonFX;
 import frc.robot.generic.util.LoggedTunableMeasure;
 import frc.robot.generic.util.LoggedTunableNumber;
+import frc.robot.generic.util.LoopProfiler;
 import frc.robot.generic.util.MechanismUtil;
 import java.util.function.Supplier;
 import lombok.Getter;
@@ -47,6 +54,7 @@ public class Turret extends SubsystemBase {
   private final LoggedDIO reverseLimit;
   private final LoggedDIO forwardLimit;
   private final LoggedAnalogInput pot;
+  private final int periodicSlot = LoopProfiler.register("Turret/Periodic");
 
   /* Movement Constants */
   private final LoggedTunableMeasure<MutAngle> minAngle =
@@ -68,18 +76,46 @@ public class Turret extends SubsystemBase {
       new LoggedTunableMeasure<MutAngle>("Turret/Pot/0Pose", Degrees.mutable(210.5));
   private final LoggedTunableMeasure<MutAngle> potRange =
       new LoggedTunableMeasure<MutAngle>("Turret/Pot/Range", Degrees.mutable(422.865));
+  /** The motor is corrected from the pot when the estimated offset is larger than this */
+  private final LoggedTunableMeasure<MutAngle> potCorrectionThreshold =
+      new LoggedTunableMeasure<MutAngle>("Turret/Pot/CorrectionThreshold", Degrees.mutable(1));
+  /** While enabled, the motor is only corrected from the pot when it is slower than this */
+  private final LoggedTunableNumber potCorrectionMaxVelocity =
+      new LoggedTunableNumber("Turret/Pot/CorrectionMaxVelocity", 5, "deg/s");
+  /** Candidates closer than this to a limit are avoided while unwinding */
+  private final LoggedTunableMeasure<MutAngle> unwindMargin =
+      new LoggedTunableMeasure<MutAngle>("Turret/UnwindMargin", Degrees.mutable(20));
+  /** Within this of the target, the turret tracks with velocity feedforward instead of profiling */
+  private final LoggedTunableMeasure<MutAngle> trackingWindow =
+      new LoggedTunableMeasure<MutAngle>("Turret/TrackingWindow", Degrees.mutable(10));
 
   /* Control Requests */
   private final MotionMagicDutyCycle mmControl = new MotionMagicDutyCycle(0);
+  private final PositionDutyCycle trackingControl = new PositionDutyCycle(0);
   private final NeutralOut neutralControl = new NeutralOut();
 
+  /** The applied motion magic config. Tuning mutates this in place, so it is always current. */
+  private final MotionMagicConfigs mmConfig;
+
+  /** The applied slot config. Tuning mutates this in place, so it is always current. */
+  private final SlotConfigs slotConfig;
+
   /* State */
   private final MutAngle targetPosition = Degrees.mutable(0);
   @AutoLogOutput private final MutAngle potPose = Degrees.mutable(0);
+  private final MutAngle correctedPosition = Degrees.mutable(0);
+  private final AbsoluteOffsetEstimator potEstimator = new AbsoluteOffsetEstimator("Turret/Pot");
+  private double lastPeriodicTimestamp = Double.NaN;
   private boolean positionControl = false;
+  private boolean tracking = false;
+  private double trackingVelocityRadPerSec = 0;
+  private double trackingAccelerationRadPerSec2 = 0;
   @Setter private boolean homed = false;
   @Getter private boolean atSetpoint = false;
 
+  private final Alert slipAlert =
+      new Alert("Turret belt slip detected, correcting from the pot", Alert.AlertType.kWarning);
+
   private final Translation3d turretVisual = new Translation3d(0, 0, Units.inchesToMeters(20));
 
   public Turret(
@@ -104,7 +140,9 @@ public class Turret extends SubsystemBase {
                     .withInverted(InvertedValue.CounterClockwise_Positive))
             .withCurrentLimits(new CurrentLimitsConfigs().withStatorCurrentLimit(10))
             .withFeedback(new FeedbackConfigs().withSensorToMechanismRatio(44));
-    motor.withConfig(config).withMMPIDTuning(SlotConfigs.from(config.Slot0), config.MotionMagic);
+    slotConfig = SlotConfigs.from(config.Slot0);
+    motor.withConfig(config).withMMPIDTuning(slotConfig, config.MotionMagic);
+    mmConfig = config.MotionMagic;
     setDefaultCommand(aimCommand());
     SmartDashboard.putData("Turret/ForceZero", forceZero());
     // Preload so AdvantageKit can process logging stuff before the match starts.
@@ -115,8 +153,13 @@ public class Turret extends SubsystemBase {
     return run(
         () -> {
           if (homed) {
-            this.requestPosition(
-                ShotCalculator.getInstance().calculateShot().turretAngle().getMeasure());
+            var shot = ShotCalculator.getInstance().calculateShot();
+            // Use the time we can't shoot anyway to move away from the limits
+            this.trackPosition(
+                shot.turretAngle().getMeasure(),
+                !shot.isValid(),
+                shot.turretVelocityRadPerSec(),
+                shot.turretAccelerationRadPerSec2());
           }
         });
   }
@@ -142,6 +185,7 @@ public class Turret extends SubsystemBase {
 
   public void updateFromAbsolute() {
     motor.setPosition(potPose);
+    potEstimator.reset();
     this.homed = true;
   }
 
@@ -164,16 +208,84 @@ public class Turret extends SubsystemBase {
   }
 
   public void requestPosition(Angle position) {
+    requestPosition(position, false);
+  }
+
+  /**
+   * Request the turret to move to a position. Every angle equivalent to {@code position} within the
+   * travel limits is considered.
+   *
+   * @param position the target angle. Any multiple of a full rotation may be added to it
+   * @param unwind if true, angles within the unwind margin of a limit are only chosen when there is
+   *     no other, so the turret has room to track in either direction later. In both cases, the
+   *     allowed angle with the shortest motion magic time from the current position and velocity is
+   *     chosen.
+   */
+  public void requestPosition(Angle position, boolean unwind) {
+    targetPosition.mut_setBaseUnitMagnitude(planPosition(position, unwind));
+    tracking = false;
+    positionControl = true;
+    setControl();
+  }
 
-    targetPosition.mut_setBaseUnitMagnitude(
-        MathUtil.inputModulus(
-            position.baseUnitMagnitude(),
-            minAngle.get().baseUnitMagnitude(),
-            maxAngle.get().baseUnitMagnitude()));
+  /**
+   * Request the turret to follow a moving target. Equivalent angles are planned the same way as
+   * {@link #requestPosition(Angle, boolean)}. Once the turret is within the tracking window of the
+   * planned angle, it is held there with position control plus velocity and acceleration
+   * feedforward, rather than restarting a motion magic profile every loop and lagging behind.
+   *
+   * @param position the target angle. Any multiple of a full rotation may be added to it
+   * @param unwind see {@link #requestPosition(Angle, boolean)}
+   * @param velocityRadPerSec the rate of change of the target angle
+   * @param accelerationRadPerSec2 the rate of change of the target velocity
+   */
+  public void trackPosition(
+      Angle position, boolean unwind, double velocityRadPerSec, double accelerationRadPerSec2) {
+    double planned = planPosition(position, unwind);
+    targetPosition.mut_setBaseUnitMagnitude(planned);
+    tracking =
+        Math.abs(planned - motor.getPosition().baseUnitMagnitude())
+            <= trackingWindow.get().baseUnitMagnitude();
+    trackingVelocityRadPerSec = velocityRadPerSec;
+    trackingAccelerationRadPerSec2 = accelerationRadPerSec2;
     positionControl = true;
     setControl();
   }
 
+  /**
+   * Pick the equivalent angle to move to.
+   *
+   * @return the planned angle in radians
+   */
+  private double planPosition(Angle position, boolean unwind) {
+    double min = minAngle.get().baseUnitMagnitude();
+    double max = maxAngle.get().baseUnitMagnitude();
+    double current = motor.getPosition().baseUnitMagnitude();
+    double velocity = motor.getVelocity().baseUnitMagnitude();
+    double margin = unwindMargin.get().baseUnitMagnitude();
+    double cruise = Units.rotationsToRadians(mmConfig.MotionMagicCruiseVelocity);
+    double acceleration = Units.rotationsToRadians(mmConfig.MotionMagicAcceleration);
+
+    // Smallest equivalent angle at or above the minimum
+    double candidate = MathUtil.inputModulus(position.baseUnitMagnitude(), min, min + 2 * Math.PI);
+    double best = MathUtil.clamp(candidate, min, max);
+    double bestCost = Double.POSITIVE_INFINITY;
+    for (; candidate <= max; candidate += 2 * Math.PI) {
+      double cost =
+          MechanismUtil.motionMagicTime(candidate - current, velocity, cruise, acceleration);
+      if (unwind && Math.min(candidate - min, max - candidate) < margin) {
+        // Only fall back to a candidate near a limit if there is nothing else
+        cost += 1000;
+      }
+      if (cost < bestCost) {
+        bestCost = cost;
+        best = candidate;
+      }
+    }
+
+    return best;
+  }
+
   /**
    * A command that commands the Turret to move to a position. This command ends when the setpoint
    * is archived
@@ -203,6 +315,7 @@ public class Turret extends SubsystemBase {
 
   @Override
   public final void periodic() {
+    long start = LoopProfiler.start();
     motor.periodic();
     reverseLimit.periodic();
     forwardLimit.periodic();
@@ -211,24 +324,86 @@ public class Turret extends SubsystemBase {
     potPose.mut_setBaseUnitMagnitude(
         (pot.get() * potRange.get().baseUnitMagnitude()) - pot0Pose.get().baseUnitMagnitude());
 
+    double timestamp = Timer.getTimestamp();
+    potEstimator.update(
+        potPose.baseUnitMagnitude(),
+        motor.getPosition().baseUnitMagnitude(),
+        motor.getVelocity().baseUnitMagnitude(),
+        Double.isNaN(lastPeriodicTimestamp) ? 0 : timestamp - lastPeriodicTimestamp);
+    lastPeriodicTimestamp = timestamp;
+    if (potEstimator.isSlipDetected()) {
+      slipAlert.set(true);
+    }
+    correctFromPot();
+
     atSetpoint = motor.atSetpoint(targetPosition, tolerance.get());
     Logger.recordOutput("Turret/AtSetpoint", atSetpoint);
     Logger.recordOutput("Turret/Homed", homed);
-    Logger.recordOutput("Turret/PositionControl", positionControl);
+    if (LogTier.DEBUG.isEnabled()) {
+      Logger.recordOutput("Turret/PositionControl", positionControl);
+      Logger.recordOutput("Turret/Tracking", tracking);
+    }
 
     setControl();
 
-    Logger.recordOutput(
-        "Turret/VisibleSetpoint",
-        new Pose3d(RobotState.getInstance().getRobotPosition())
-            .transformBy(
-                new Transform3d(
-                    turretVisual, new Rotation3d(Degrees.zero(), Degrees.zero(), targetPosition))));
+    if (LogTier.VISUALIZATION.isEnabled()) {
+      Logger.recordOutput(
+          "Turret/VisibleSetpoint",
+          new Pose3d(RobotState.getInstance().getRobotPosition())
+              .transformBy(
+                  new Transform3d(
+                      turretVisual,
+                      new Rotation3d(Degrees.zero(), Degrees.zero(), targetPosition))));
+    }
+    LoopProfiler.stop(periodicSlot, start);
+  }
+
+  /**
+   * Move the motor position onto the pot estimate once it is confident. This homes the turret
+   * without a button press, and fixes drift or belt slip. While enabled, corrections are only made
+   * when the turret is holding still at a fixed setpoint, so the jump doesn't disturb a motion
+   * magic move or a shot. The slip alert stays up until a correction is made.
+   */
+  private void correctFromPot() {
+    if (!potEstimator.isConverged()) {
+      return;
+    }
+    double offset = potEstimator.getOffset();
+    boolean stopped =
+        Math.abs(motor.getVelocity().baseUnitMagnitude())
+            < Units.degreesToRadians(potCorrectionMaxVelocity.get());
+    boolean safe =
+        DriverStation.isDisabled()
+            || (positionControl
+                && !tracking
+                && stopped
+                && motor.atSetpoint(targetPosition, tolerance.get()));
+    if (!homed || (safe && Math.abs(offset) > potCorrectionThreshold.get().baseUnitMagnitude())) {
+      correctedPosition.mut_setBaseUnitMagnitude(motor.getPosition().baseUnitMagnitude() + offset);
+      motor.setPosition(correctedPosition);
+      potEstimator.shift(offset);
+      homed = true;
+      slipAlert.set(false);
+      Logger.recordOutput("Turret/Pot/Correction", Units.radiansToDegrees(offset), "deg");
+    }
   }
 
   private void setControl() {
     if (positionControl) {
-      Logger.recordOutput("Turret/Target", targetPosition.in(Rotation), "rot");
+      if (LogTier.DEBUG.isEnabled()) {
+        Logger.recordOutput("Turret/Target", targetPosition.in(Rotation), "rot");
+      }
+      if (tracking) {
+        motor.setControl(
+            trackingControl
+                .withPosition(targetPosition)
+                .withVelocity(Units.radiansToRotations(trackingVelocityRadPerSec))
+                .withFeedForward(
+                    slotConfig.kA * Units.radiansToRotations(trackingAccelerationRadPerSec2))
+                .withLimitReverseMotion(reverseLimit.get())
+                .withLimitForwardMotion(forwardLimit.get()));
+        return;
+      }
       motor.setControl(
           mmControl
               .withPosition(targetPosition)
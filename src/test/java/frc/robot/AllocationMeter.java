@@ -0,0 +1,44 @@
+package frc.robot;
+
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the bytes allocated by the current thread, for allocation tests.
+ *
+ * <p>The roboRIO runs the serial collector, so garbage made in the loop turns into loop jitter.
+ * Tests measure the mean allocation of code that runs every loop, after a warmup so the JIT has
+ * settled, and compare it to a budget.
+ */
+public final class AllocationMeter {
+  private static final ThreadMXBean threadBean =
+      (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  private AllocationMeter() {}
+
+  /**
+   * @return the bytes allocated by the current thread so far
+   */
+  public static long allocatedBytes() {
+    return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  /**
+   * Run some code repeatedly, after a warmup, and measure its mean allocation.
+   *
+   * @param warmup the number of unmeasured runs
+   * @param runs the number of measured runs
+   * @param code the code to run
+   * @return the mean bytes allocated per run
+   */
+  public static double bytesPerRun(int warmup, int runs, Runnable code) {
+    for (int i = 0; i < warmup; i++) {
+      code.run();
+    }
+    long start = allocatedBytes();
+    for (int i = 0; i < runs; i++) {
+      code.run();
+    }
+    return (allocatedBytes() - start) / (double) runs;
+  }
+}
@@ -0,0 +1,131 @@
+package frc.robot.generic.util;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import frc.robot.AllocationMeter;
+import frc.robot.generic.subsystems.drive.Module;
+import frc.robot.generic.subsystems.drive.ModuleIO;
+import frc.robot.generic.subsystems.drive.ModuleIOInputsAutoLogged;
+import frc.robot.generic.subsystems.vision.Vision;
+import frc.robot.generic.subsystems.vision.VisionIO;
+import frc.robot.generic.subsystems.vision.VisionIOInputsAutoLogged;
+import frc.robot.generic.util.LoggedTalon.TalonFX.NoOppTalonFX;
+import frc.robot.generic.util.LoggedTalon.TalonInputs;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Checks that logging code builds its {@link LogKeys} once, not every loop.
+ *
+ * <p>The logger is running, with a receiver that drops every cycle, so keys are consumed by the log
+ * table and the JIT can't drop a key that is built and never used. The IOs are empty, so what is
+ * left of a periodic is its logging. Each periodic is measured against a reference that makes the
+ * same logger calls with constant keys, which takes out what AdvantageKit allocates itself.
+ * Building a key costs at least a {@link String} and its backing array, so code that builds one
+ * every loop allocates more than the reference by more than the budgets below.
+ */
+class LogKeysTest {
+  private static final int warmup = 20_000;
+  private static final int runs = 10_000;
+
+  /** Less than the smallest string, so not even one key can be built per call */
+  private static final double noKeysBudget = 24;
+
+  /**
+   * Each camera allocates four empty lists for its pose logs, 128 bytes. The five keys per camera
+   * that used to be built every loop cost over 250 more.
+   */
+  private static final double visionCameraBudget = 192;
+
+  @BeforeAll
+  static void setup() {
+    assertTrue(HAL.initialize(500, 0), "Failed to initialize the simulation HAL");
+    SimHooks.pauseTiming();
+    Logger.addDataReceiver(table -> {});
+    Logger.start();
+  }
+
+  @AfterAll
+  static void teardown() {
+    Logger.end();
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void loggedTalon() {
+    NoOppTalonFX motor = new NoOppTalonFX("LogKeysTest", 1);
+    TalonInputs inputs = new TalonInputs(2);
+    assertWithinBudget(
+        "LoggedTalon",
+        AllocationMeter.bytesPerRun(warmup, runs, motor::periodic),
+        AllocationMeter.bytesPerRun(
+            warmup, runs, () -> Logger.processInputs("Motors/LogKeysTest", inputs)));
+  }
+
+  @Test
+  void module() {
+    Module module = new Module(new ModuleIO() {}, 0);
+    ModuleIOInputsAutoLogged inputs = new ModuleIOInputsAutoLogged();
+    // The empty odometry positions array made every loop is 16 bytes, under the budget
+    assertWithinBudget(
+        "Module",
+        AllocationMeter.bytesPerRun(warmup, runs, module::periodic),
+        AllocationMeter.bytesPerRun(
+            warmup, runs, () -> Logger.processInputs("Drive/Module0", inputs)));
+  }
+
+  @Test
+  void vision() {
+    Vision oneCamera = new Vision((pose, timestamp, stdDevs) -> {}, new VisionIO() {});
+    Vision threeCameras =
+        new Vision(
+            (pose, timestamp, stdDevs) -> {},
+            new VisionIO() {},
+            new VisionIO() {},
+            new VisionIO() {});
+    VisionIOInputsAutoLogged inputs = new VisionIOInputsAutoLogged();
+    double perCamera =
+        (AllocationMeter.bytesPerRun(warmup, runs, threeCameras::periodic)
+                - AllocationMeter.bytesPerRun(warmup, runs, oneCamera::periodic))
+            / 2;
+    double reference =
+        AllocationMeter.bytesPerRun(
+            warmup,
+            runs,
+            () -> {
+              Logger.processInputs("Vision/Camera1", inputs);
+              if (LogTier.VISUALIZATION.isEnabled()) {
+                Logger.recordOutput("Vision/Camera1/TagPoses", new Pose3d[0]);
+                Logger.recordOutput("Vision/Camera1/RobotPoses", new Pose3d[0]);
+                Logger.recordOutput("Vision/Camera1/RobotPosesAccepted", new Pose3d[0]);
+                Logger.recordOutput("Vision/Camera1/RobotPosesRejected", new Pose3d[0]);
+              }
+            });
+    double extra = perCamera - reference;
+    assertTrue(
+        extra <= visionCameraBudget,
+        String.format(
+            Locale.ROOT,
+            "Vision: %.0f B/camera over the logger, budget %.0f",
+            extra,
+            visionCameraBudget));
+  }
+
+  private static void assertWithinBudget(String name, double bytesPerCall, double reference) {
+    double extra = bytesPerCall - reference;
+    assertTrue(
+        extra < noKeysBudget,
+        String.format(
+            Locale.ROOT,
+            "%s: %.1f B/call over the logger, budget %.0f",
+            name,
+            extra,
+            noKeysBudget));
+  }
+}
@@ -0,0 +1,163 @@
+package frc.robot.testing2026;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.simulation.SimHooks;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.AllocationMeter;
+import frc.robot.generic.util.LoopProfiler;
+import frc.robot.generic.util.SimTiming;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the robot loop stays within its allocation budgets, in simulation.
+ *
+ * <p>The container is built in sim and enabled in teleop, then the scheduler is run for {@link
+ * #warmupCycles} cycles so the JIT has settled. Each budget is the most a piece of the loop may
+ * allocate per cycle, on average, over {@link #cycles} cycles. Subsystems are measured inside the
+ * scheduler's own pass, through the {@link LoopProfiler} slot around their periodic.
+ *
+ * <p>The logger isn't started, so this measures the robot code and not AdvantageKit. Every {@link
+ * frc.robot.generic.util.LogTier} is on, since the tiers are only updated by the robot. The budgets
+ * are starting points; tighten them as allocation is removed.
+ */
+class AllocationBudgetTest {
+  private static final int warmupCycles = 250;
+  private static final int cycles = 500;
+
+  private static final long schedulerBudget = 32768;
+  private static final long driveBudget = 8192;
+  private static final long visionBudget = 4096;
+  private static final long hoodBudget = 1024;
+  private static final long turretBudget = 2048;
+  private static final long flywheelBudget = 1024;
+
+  @BeforeAll
+  static void setup() {
+    assertTrue(HAL.initialize(500, 0), "Failed to initialize the simulation HAL");
+    SimHooks.pauseTiming();
+    new RobotContainer();
+
+    DriverStationSim.setAutonomous(false);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.notifyNewData();
+    DriverStation.refreshData();
+    for (int i = 0; i < warmupCycles; i++) {
+      cycle();
+    }
+  }
+
+  @AfterAll
+  static void teardown() {
+    CommandScheduler.getInstance().cancelAll();
+    CommandScheduler.getInstance().unregisterAllSubsystems();
+    SimHooks.resumeTiming();
+  }
+
+  @Test
+  void scheduler() {
+    double bytes = AllocationMeter.bytesPerRun(0, cycles, AllocationBudgetTest::cycle);
+    assertWithinBudget("Scheduler", bytes, schedulerBudget);
+  }
+
+  @Test
+  void drive() {
+    assertWithinBudget("Drive/Periodic", driveBudget);
+  }
+
+  @Test
+  void vision() {
+    assertWithinBudget("Vision/Periodic", visionBudget);
+  }
+
+  @Test
+  void hood() {
+    assertWithinBudget("Hood/Periodic", hoodBudget);
+  }
+
+  @Test
+  void turret() {
+    assertWithinBudget("Turret/Periodic", turretBudget);
+  }
+
+  @Test
+  void flywheel() {
+    assertWithinBudget("Flywheel/Periodic", flywheelBudget);
+  }
+
+  /** Run one robot loop and advance the clock. */
+  private static void cycle() {
+    CommandScheduler.getInstance().run();
+    SimHooks.stepTiming(SimTiming.loopPeriodSecs);
+  }
+
+  /**
+   * Measure a {@link LoopProfiler} slot over {@link #cycles} scheduler cycles, after warming up
+   * again with the meter attached, since attaching it changes the compiled code.
+   */
+  private static void assertWithinBudget(String slot, long budget) {
+    SlotMeter meter = new SlotMeter(slot);
+    LoopProfiler.setListener(meter);
+    try {
+      for (int i = 0; i < warmupCycles; i++) {
+        cycle();
+      }
+      meter.reset();
+      for (int i = 0; i < cycles; i++) {
+        cycle();
+      }
+    } finally {
+      LoopProfiler.setListener(null);
+    }
+    assertTrue(meter.calls > 0, slot + " never ran");
+    assertWithinBudget(slot, meter.total / (double) cycles, budget);
+  }
+
+  private static void assertWithinBudget(String name, double bytesPerCycle, long budget) {
+    assertTrue(
+        bytesPerCycle <= budget,
+        String.format(
+            Locale.ROOT, "%s: %.0f B/cycle mean, budget %d", name, bytesPerCycle, budget));
+  }
+
+  /**
+   * Sums what one slot allocates. It runs inside the slots it measures, so it must not allocate
+   * itself.
+   */
+  private static final class SlotMeter implements LoopProfiler.Listener {
+    private final String slot;
+    private final long[] starts = new long[64];
+    private int depth = 0;
+    private long total = 0;
+    private int calls = 0;
+
+    SlotMeter(String slot) {
+      this.slot = slot;
+    }
+
+    void reset() {
+      total = 0;
+      calls = 0;
+    }
+
+    @Override
+    public void started() {
+      starts[depth++] = AllocationMeter.allocatedBytes();
+    }
+
+    @Override
+    public void stopped(String name) {
+      long start = starts[--depth];
+      if (slot.equals(name)) {
+        total += AllocationMeter.allocatedBytes() - start;
+        calls++;
+      }
+    }
+  }
+}